@@ -717,6 +717,10 @@ public final class GDownloader {
                 }
             }
 
+            if (downloadManager != null) {
+                downloadManager.invalidateUrlFilters();
+            }
+
             LoggerUtils.setDebugLogLevel(configIn.isDebugMode());
         } catch (IOException e) {
             handleException(e);
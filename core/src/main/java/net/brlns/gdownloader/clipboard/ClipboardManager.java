@@ -22,18 +22,14 @@ import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.StringSelection;
 import java.awt.datatransfer.Transferable;
-import java.net.URI;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -42,9 +38,6 @@ import net.brlns.gdownloader.ui.message.MessageTypeEnum;
 import net.brlns.gdownloader.ui.message.PopupMessenger;
 import net.brlns.gdownloader.ui.message.ToastMessenger;
 import net.brlns.gdownloader.util.collection.ExpiringSet;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.select.Elements;
 
 import static net.brlns.gdownloader.lang.Language.l10n;
 
@@ -52,7 +45,7 @@ import static net.brlns.gdownloader.lang.Language.l10n;
  * Java does not provide a reliable way to detect clipboard changes.
  * We have to rely on native bindings to make this work properly.
  *
- * TODO: Linux/Mac JNA bindings
+ * TODO: Mac JNA bindings
  *
  * @author Gabriel / hstr0100 / vertx010
  */
@@ -68,7 +61,10 @@ public class ClipboardManager {
 
     private final ReentrantLock clipboardLock = new ReentrantLock();
 
-    private final List<IClipboardListener> clipboardListeners = new ArrayList<>();
+    private final List<IClipboardListener> clipboardListeners = new CopyOnWriteArrayList<>();
+
+    // Only needed when none of the listeners can be trusted to see every change, re-evaluated on every tick
+    private volatile boolean pollClipboard;
 
     private final ExpiringSet<String> urlIgnoreSet = new ExpiringSet<>(TimeUnit.SECONDS, 1);
 
@@ -78,11 +74,30 @@ public class ClipboardManager {
 
         if (GDownloader.isWindows()) {
             clipboardListeners.add(new Win32NativeClipboardListener());
+        } else if (GDownloader.isLinux()) {
+            X11NativeClipboardListener x11Listener = new X11NativeClipboardListener();
+            if (x11Listener.isAvailable()) {
+                clipboardListeners.add(x11Listener);
+            }
         }
 
-        //TODO: X11/Wayland. X11 will be a mess.
+        updatePollingState();
+    }
+
+    /**
+     * Switches to polling once no listener can be trusted to see every change,
+     * either from the start or because a native listener stopped working.
+     */
+    private void updatePollingState() {
+        if (pollClipboard || clipboardListeners.stream().anyMatch(IClipboardListener::isAuthoritative)) {
+            return;
+        }
+
+        //TODO: Native Wayland.
         clipboardListeners.add(new MaybeChangedClipboardListener());
         clipboardListeners.add(new CtrlCNativeClipboardListener());
+
+        pollClipboard = true;
     }
 
     public void unblock() {
@@ -97,12 +112,14 @@ public class ClipboardManager {
             return;
         }
 
+        updatePollingState();
+
         boolean changed = clipboardListeners.stream()
             .anyMatch(IClipboardListener::clipboardHasChanged);
 
         if (changed) {
             triggerRevalidation();
-        } else {
+        } else if (pollClipboard) {
             updateClipboard();
         }
     }
@@ -193,7 +210,7 @@ public class ClipboardManager {
                         if (!force) {
                             processClipboardData(flavorType, data);
                         } else {
-                            handleClipboardInput(data, force);
+                            handleClipboardInput(flavorType, data, force);
                         }
 
                         success = true;
@@ -262,15 +279,22 @@ public class ClipboardManager {
         }, 100);
     }
 
-    private void handleClipboardInput(String data, boolean force) {
+    private void handleClipboardInput(FlavorType flavorType, String data, boolean force) {
         GDownloader.GLOBAL_THREAD_POOL.submitWithPriority(() -> {
-            List<CompletableFuture<Boolean>> list = new ArrayList<>();
+            Set<String> urls = flavorType == FlavorType.HTML
+                ? ClipboardUrlExtractor.extractFromHtml(data)
+                : ClipboardUrlExtractor.extractFromText(data);
 
-            for (String url : extractUrlsFromString(data)) {
+            if (main.getConfig().isDebugMode()) {
+                log.debug("Found {} urls in {} flavor", urls.size(), flavorType);
+            }
+
+            List<String> toCapture = new ArrayList<>();
+            for (String url : urls) {
                 if (url.startsWith("http") && !urlIgnoreSet.contains(url)) {
                     urlIgnoreSet.add(url);
 
-                    list.add(main.getDownloadManager().captureUrl(url, force));
+                    toCapture.add(url);
                 }
 
                 // Small extra utility
@@ -279,28 +303,13 @@ public class ClipboardManager {
                 }
             }
 
-            CompletableFuture<Void> futures = CompletableFuture.allOf(list.toArray(CompletableFuture[]::new));
-
-            futures.thenRun(() -> {
-                int captured = 0;
-
-                List<Boolean> results = list.stream()
-                    .map(future -> {
-                        try {
-                            return future.join();
-                        } catch (CompletionException e) {
-                            GDownloader.handleException(e.getCause());
-                            return false;
-                        }
-                    })
-                    .collect(Collectors.toList());
+            if (toCapture.isEmpty()) {
+                return;
+            }
 
-                for (boolean result : results) {
-                    if (result) {
-                        captured++;
-                    }
-                }
+            CompletableFuture<Integer> future = main.getDownloadManager().captureUrls(toCapture, force);
 
+            future.thenAccept(captured -> {
                 if (captured > 0) {
                     if (main.getConfig().isDisplayLinkCaptureNotifications()) {
                         PopupMessenger.show(
@@ -318,7 +327,7 @@ public class ClipboardManager {
             });
 
             try {
-                futures.get(10l, TimeUnit.MINUTES);
+                future.get(10l, TimeUnit.MINUTES);
             } catch (InterruptedException | ExecutionException e) {
                 GDownloader.handleException(e);
             } catch (TimeoutException e) {
@@ -337,47 +346,10 @@ public class ClipboardManager {
         if (!last.equals(data)) {
             lastClipboardState.put(flavorType, data);
 
-            handleClipboardInput(data, false);
+            handleClipboardInput(flavorType, data, false);
         }
     }
 
-    private Set<String> extractUrlsFromString(String content) {
-        Set<String> result = new HashSet<>();
-
-        Document doc = Jsoup.parse(content);
-
-        Elements links = doc.select("a[href]");
-        Elements media = doc.select("[src]");
-
-        if (main.getConfig().isDebugMode()) {
-            log.debug("Found {} Links and {} Media", links.size(), media.size());
-        }
-
-        if (links.isEmpty() && media.isEmpty()) {
-            String regex = "(http[^\\s]*|magnet:[^\\s]*)(?=\\s|$|http|magnet:)";
-            Pattern pattern = Pattern.compile(regex);
-            Matcher matcher = pattern.matcher(content);
-
-            while (matcher.find()) {
-                String url = matcher.group(1);
-
-                if (isValidURL(url)) {
-                    result.add(url);
-                }
-            }
-        }
-
-        links.forEach((link) -> {
-            result.add(link.attr("href"));
-        });
-
-        media.forEach((src) -> {
-            result.add(src.attr("src"));
-        });
-
-        return result;
-    }
-
     /**
      * This should be called after updateClipboard() when lastClipboardState is populated.
      */
@@ -407,15 +379,6 @@ public class ClipboardManager {
         }
     }
 
-    private static boolean isValidURL(String urlString) {
-        try {
-            new URI(urlString).toURL();
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
     @Getter
     public static enum FlavorType {
         STRING(DataFlavor.stringFlavor),
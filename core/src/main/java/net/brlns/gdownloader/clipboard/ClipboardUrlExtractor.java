@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.clipboard;
+
+import java.net.URI;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+/**
+ * Extracts urls from clipboard contents.
+ *
+ * Plain text goes through a single pass scanner that only allocates for the urls it finds.
+ * Only the HTML flavor is handed to Jsoup, and only when it is small enough and mentions a url at all,
+ * anything larger is scanned as plain text instead.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+public final class ClipboardUrlExtractor {
+
+    // Past this, only the beginning of the clipboard is looked at
+    public static final int MAX_SCAN_LENGTH = 8 * 1024 * 1024;
+    // Past this, HTML is scanned as plain text instead of being parsed
+    public static final int MAX_HTML_PARSE_LENGTH = 512 * 1024;
+
+    private static final String HTTP = "http";
+    private static final String MAGNET = "magnet:";
+
+    public static Set<String> extractFromText(CharSequence content) {
+        Set<String> result = new LinkedHashSet<>();
+
+        int length = Math.min(content.length(), MAX_SCAN_LENGTH);
+
+        int i = 0;
+        while (i < length) {
+            char ch = content.charAt(i);
+
+            if ((ch == 'h' && regionMatches(content, i, length, HTTP))
+                || (ch == 'm' && regionMatches(content, i, length, MAGNET))) {
+                int end = i;
+                while (end < length && !isDelimiter(content.charAt(end))) {
+                    end++;
+                }
+
+                String url = content.subSequence(i, end).toString();
+                if (isValidURL(url)) {
+                    result.add(url);
+                }
+
+                i = end;
+            } else {
+                i++;
+            }
+        }
+
+        return result;
+    }
+
+    public static Set<String> extractFromHtml(String content) {
+        if (content.length() > MAX_HTML_PARSE_LENGTH || !mentionsUrl(content)) {
+            return extractFromText(content);
+        }
+
+        Set<String> result = new LinkedHashSet<>();
+
+        Document doc = Jsoup.parse(content);
+        for (Element link : doc.select("a[href]")) {
+            result.add(link.attr("href"));
+        }
+
+        for (Element media : doc.select("[src]")) {
+            result.add(media.attr("src"));
+        }
+
+        if (result.isEmpty()) {
+            // Urls in the text itself, not linked
+            return extractFromText(content);
+        }
+
+        return result;
+    }
+
+    private static boolean mentionsUrl(String content) {
+        return content.contains(HTTP) || content.contains(MAGNET);
+    }
+
+    private static boolean regionMatches(CharSequence content, int offset, int length, String prefix) {
+        if (offset + prefix.length() > length) {
+            return false;
+        }
+
+        for (int i = 1; i < prefix.length(); i++) {
+            if (content.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isDelimiter(char ch) {
+        // Quotes and angle brackets are never part of a url, but often surround one in markup
+        return Character.isWhitespace(ch)
+            || ch == '"' || ch == '\'' || ch == '<' || ch == '>' || ch == '`';
+    }
+
+    private static boolean isValidURL(String urlString) {
+        try {
+            URI uri = new URI(urlString);
+            if (!urlString.startsWith(MAGNET)) {
+                // There is no URL handler for magnet links
+                uri.toURL();
+            }
+
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
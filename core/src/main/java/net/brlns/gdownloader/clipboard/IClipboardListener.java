@@ -27,4 +27,11 @@ public interface IClipboardListener {
 
     void skipFor(TimeUnit unit, long value);
 
+    /**
+     * Whether this listener reports every clipboard change, making it unnecessary to poll the clipboard contents.
+     */
+    default boolean isAuthoritative() {
+        return false;
+    }
+
 }
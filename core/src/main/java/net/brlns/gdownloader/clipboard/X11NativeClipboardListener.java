@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.clipboard;
+
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.platform.unix.X11;
+import com.sun.jna.ptr.IntByReference;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Listens for CLIPBOARD ownership changes through the XFixes extension.
+ *
+ * Every copy on X11 makes some client the new owner of the selection, so unlike the other listeners
+ * this one sees every change without having to read the clipboard. Events are received on a
+ * dedicated display connection, in a thread blocked on {@code XNextEvent}.
+ *
+ * Under XWayland only changes made by X clients are reported reliably, so there it is not
+ * considered authoritative and polling is kept as a fallback. The same happens if the event
+ * loop ever fails, after which this listener stops reporting changes altogether.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Slf4j
+public class X11NativeClipboardListener extends AbstractClipboardListener {
+
+    private static final int XFIXES_SET_SELECTION_OWNER_NOTIFY_MASK = 1 << 0;
+    private static final int XFIXES_SELECTION_NOTIFY = 0;
+
+    private final AtomicBoolean hasChanged = new AtomicBoolean(false);
+
+    @Getter
+    private final boolean available;
+
+    // Cleared if the event loop stops, letting the clipboard manager fall back to polling
+    private volatile boolean authoritative;
+
+    private X11.Display display;
+    private int selectionNotifyEvent;
+
+    public X11NativeClipboardListener() {
+        available = tryInitialize();
+        authoritative = available && !isWaylandSession();
+
+        if (available) {
+            Thread eventThread = new Thread(this::eventLoop);
+            eventThread.setName("X11ClipboardListener");
+            eventThread.setDaemon(true);
+            eventThread.start();
+        }
+    }
+
+    private boolean tryInitialize() {
+        try {
+            XFixes xfixes = Native.load("Xfixes", XFixes.class);
+
+            display = X11.INSTANCE.XOpenDisplay(null);
+            if (display == null) {
+                log.warn("Cannot open X11 display, clipboard change events are unavailable");
+                return false;
+            }
+
+            IntByReference eventBase = new IntByReference();
+            IntByReference errorBase = new IntByReference();
+            if (!xfixes.XFixesQueryExtension(display, eventBase, errorBase)) {
+                log.warn("XFixes extension is not present, clipboard change events are unavailable");
+
+                X11.INSTANCE.XCloseDisplay(display);
+                display = null;
+                return false;
+            }
+
+            selectionNotifyEvent = eventBase.getValue() + XFIXES_SELECTION_NOTIFY;
+
+            X11.Window root = X11.INSTANCE.XDefaultRootWindow(display);
+            X11.Atom clipboardAtom = X11.INSTANCE.XInternAtom(display, "CLIPBOARD", false);
+
+            xfixes.XFixesSelectSelectionInput(display, root, clipboardAtom,
+                new NativeLong(XFIXES_SET_SELECTION_OWNER_NOTIFY_MASK));
+            X11.INSTANCE.XFlush(display);
+
+            log.info("Listening for X11 clipboard changes through XFixes");
+            return true;
+        } catch (UnsatisfiedLinkError | NoClassDefFoundError e) {
+            log.warn("Cannot load libXfixes, clipboard change events are unavailable: {}", e.getMessage());
+
+            if (display != null) {
+                X11.INSTANCE.XCloseDisplay(display);
+                display = null;
+            }
+
+            return false;
+        }
+    }
+
+    private void eventLoop() {
+        X11.XEvent event = new X11.XEvent();
+
+        try {
+            while (true) {
+                // Blocks until the server sends something, this connection only ever receives selection events
+                X11.INSTANCE.XNextEvent(display, event);
+
+                if (event.type == selectionNotifyEvent) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Detected X11 clipboard owner change");
+                    }
+
+                    hasChanged.set(true);
+                }
+            }
+        } catch (Throwable e) {
+            log.error("X11 clipboard listener stopped, falling back to polling", e);
+
+            authoritative = false;
+
+            try {
+                X11.INSTANCE.XCloseDisplay(display);
+            } catch (Throwable e2) {
+                log.error("Cannot close X11 display", e2);
+            }
+
+            display = null;
+        }
+    }
+
+    @Override
+    public boolean isAuthoritative() {
+        return authoritative;
+    }
+
+    @Override
+    protected boolean detectClipboardChange() {
+        return hasChanged.getAndSet(false);
+    }
+
+    private static boolean isWaylandSession() {
+        return System.getenv("WAYLAND_DISPLAY") != null
+            || "wayland".equalsIgnoreCase(System.getenv("XDG_SESSION_TYPE"));
+    }
+
+    private interface XFixes extends Library {
+
+        boolean XFixesQueryExtension(X11.Display display, IntByReference eventBase, IntByReference errorBase);
+
+        void XFixesSelectSelectionInput(X11.Display display, X11.Window window, X11.Atom selection, NativeLong eventMask);
+    }
+}
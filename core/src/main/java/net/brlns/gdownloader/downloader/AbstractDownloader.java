@@ -20,14 +20,21 @@ import jakarta.annotation.Nullable;
 import jakarta.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import net.brlns.gdownloader.GDownloader;
 import net.brlns.gdownloader.downloader.enums.DownloadTypeEnum;
 import net.brlns.gdownloader.downloader.enums.DownloaderIdEnum;
 import net.brlns.gdownloader.downloader.structs.DownloadResult;
+import net.brlns.gdownloader.downloader.structs.PlaylistExpansionResult;
 import net.brlns.gdownloader.util.FileUtils;
+import net.brlns.gdownloader.util.StreamingLineDecoder;
 
 /**
  * @author Gabriel / hstr0100 / vertx010
@@ -38,6 +45,8 @@ public abstract class AbstractDownloader {
     protected final GDownloader main;
     protected final DownloadManager manager;
 
+    private final Map<DownloadTypeEnum, DownloadArchive> downloadArchives = new ConcurrentHashMap<>();
+
     public AbstractDownloader(DownloadManager managerIn) {
         main = managerIn.getMain();
         manager = managerIn;
@@ -67,6 +76,32 @@ public abstract class AbstractDownloader {
 
     public abstract void removeArchiveEntry(QueueEntry queueEntry);
 
+    /**
+     * Whether everything this downloader would fetch for the queried entry is already in its archive.
+     */
+    public boolean isArchived(QueueEntry queueEntry) {
+        return false;
+    }
+
+    /**
+     * Whether the queried entry is a playlist this downloader can list item by item.
+     * Callers check this before calling {@link #expandPlaylist}.
+     */
+    public boolean canExpandPlaylist(QueueEntry queueEntry) {
+        return false;
+    }
+
+    /**
+     * Lists the items of a playlist entry, handing item urls to the consumer in batches as they become known.
+     * Items already in the download archive are skipped, but still counted.
+     * Downloaders that cannot expand playlists list nothing, leaving the playlist to be downloaded as a whole.
+     *
+     * @return how many items were listed, and whether that was the whole playlist.
+     */
+    public PlaylistExpansionResult expandPlaylist(QueueEntry queueEntry, Consumer<List<String>> batchConsumer) throws Exception {
+        return new PlaylistExpansionResult(0, false);
+    }
+
     public abstract DownloaderIdEnum getDownloaderId();
 
     public List<DownloadTypeEnum> getDownloadTypes() {
@@ -76,8 +111,47 @@ public abstract class AbstractDownloader {
     @PreDestroy
     public abstract void close();
 
+    /**
+     * Whether this downloader keeps its archive as plain text, one entry per line.
+     * Only those archives are indexed through {@link DownloadArchive}.
+     */
+    protected boolean hasLineArchive() {
+        return false;
+    }
+
+    /**
+     * Maps a line of this downloader's archive to the key entries are looked up and removed by.
+     */
+    protected String getArchiveKey(String line) {
+        return line;
+    }
+
     @Nullable
     public File getArchiveFile(DownloadTypeEnum downloadType) {
+        DownloadArchive archive = getDownloadArchive(downloadType);
+        if (archive != null) {
+            // Downloaders read the text file directly, make sure removals are reflected in it first
+            return archive.export();
+        }
+
+        return resolveArchiveFile(downloadType);
+    }
+
+    @Nullable
+    protected DownloadArchive getDownloadArchive(DownloadTypeEnum downloadType) {
+        if (!hasLineArchive()) {
+            return null;
+        }
+
+        return downloadArchives.computeIfAbsent(downloadType, type -> {
+            File file = resolveArchiveFile(type);
+
+            return file != null ? new DownloadArchive(file, this::getArchiveKey) : null;
+        });
+    }
+
+    @Nullable
+    private File resolveArchiveFile(DownloadTypeEnum downloadType) {
         List<DownloadTypeEnum> supported = getArchivableTypes();
 
         if (supported.contains(downloadType)) {
@@ -101,6 +175,75 @@ public abstract class AbstractDownloader {
         return null;
     }
 
+    /**
+     * Streams the output of a downloader process through a {@link StreamingLineDecoder}
+     * until the process exits or the download is halted.
+     *
+     * Every line is handed to {@link IOutputLineClassifier#inspectLine}, while only the last line
+     * of each read is materialized and handed to {@link IOutputLineClassifier#classify}.
+     *
+     * @return the last line printed by the process, or an empty string if there was none.
+     */
+    protected String readProcessOutput(QueueEntry entry, Process process, IOutputLineClassifier classifier) throws Exception {
+        StreamingLineDecoder decoder = new StreamingLineDecoder();
+        StringBuilder lastOutput = new StringBuilder();
+        AtomicBoolean hasNewOutput = new AtomicBoolean();
+
+        StreamingLineDecoder.LineConsumer consumer = line -> {
+            line.copyTo(lastOutput);
+            hasNewOutput.set(true);
+
+            classifier.inspectLine(entry, line);
+        };
+
+        byte[] buffer = new byte[StreamingLineDecoder.DEFAULT_BUFFER_SIZE];
+
+        try (InputStream stdInput = process.getInputStream()) {
+            while (manager.isRunning() && !entry.getCancelHook().get() && process.isAlive()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    log.debug("Process is closing");
+                    process.destroyForcibly();
+                    throw new InterruptedException("Download interrupted");
+                }
+
+                int available = stdInput.available();
+                if (available > 0) {
+                    int bytesRead = stdInput.read(buffer, 0, Math.min(available, buffer.length));
+                    if (bytesRead > 0) {
+                        decoder.feed(buffer, 0, bytesRead, consumer);
+
+                        if (hasNewOutput.getAndSet(false)) {
+                            classifier.classify(entry, lastOutput.toString());
+                        }
+                    }
+                } else {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        log.debug("Sleep interrupted, closing process");
+                        process.destroyForcibly();
+                    }
+                }
+            }
+
+            if (manager.isRunning() && !entry.getCancelHook().get()) {
+                // The process may have exited between polls, drain whatever it printed last.
+                int bytesRead;
+                while ((bytesRead = stdInput.read(buffer)) != -1) {
+                    decoder.feed(buffer, 0, bytesRead, consumer);
+                }
+
+                decoder.finish(consumer);
+
+                if (hasNewOutput.get()) {
+                    classifier.classify(entry, lastOutput.toString());
+                }
+            }
+        }
+
+        return lastOutput.toString();
+    }
+
     @Nullable
     public File getCookieJarFile() {
         if (!main.getConfig().isReadCookiesFromCookiesTxt()) {
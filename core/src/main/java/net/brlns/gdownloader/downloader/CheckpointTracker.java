@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.downloader;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import net.brlns.gdownloader.downloader.enums.DownloaderIdEnum;
+import net.brlns.gdownloader.downloader.structs.MediaInfo;
+import net.brlns.gdownloader.persistence.QueueEntryDelta;
+import net.brlns.gdownloader.persistence.entity.LogLineEntity;
+import net.brlns.gdownloader.persistence.entity.LogTypeEnum;
+import net.brlns.gdownloader.util.Pair;
+
+import static net.brlns.gdownloader.persistence.QueueEntryDelta.estimateSize;
+
+/**
+ * Remembers what was last checkpointed for a {@link QueueEntry} and diffs its current state against it.
+ *
+ * Plain snapshot comparison rather than setter instrumentation, most of the entry's state
+ * lives in atomics and lists that are mutated directly by the downloaders.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+final class CheckpointTracker {
+
+    private final QueueEntry entry;
+
+    private boolean fullWriteRequired = true;
+
+    private Map<String, Object> persistedColumns = Map.of();
+    private List<DownloaderIdEnum> persistedBlacklist = List.of();
+    private List<String> persistedMediaFilePaths = List.of();
+    private List<String> persistedCommandLine = List.of();
+    private MediaInfo persistedMediaInfo;
+
+    private final Map<LogTypeEnum, Long> persistedLogIndexes = new EnumMap<>(LogTypeEnum.class);
+
+    CheckpointTracker(QueueEntry entryIn) {
+        entry = entryIn;
+    }
+
+    synchronized QueueEntryDelta createDelta() {
+        long downloadId = entry.getDownloadId();
+
+        QueueEntryDelta delta = new QueueEntryDelta(downloadId);
+
+        Map<String, Object> columns = snapshotColumns();
+        ArrayList<DownloaderIdEnum> blacklist = new ArrayList<>(entry.getDownloaderBlacklist());
+        ArrayList<String> mediaFilePaths = entry.getFinalMediaFiles().stream()
+            .map(File::getAbsolutePath)
+            .collect(Collectors.toCollection(ArrayList::new));
+        ArrayList<String> commandLine = new ArrayList<>(entry.getLastCommandLine());
+        MediaInfo mediaInfo = entry.getMediaInfo();
+
+        long fullBytes = estimateSize(columns.values())
+            + estimateSize(blacklist)
+            + estimateSize(mediaFilePaths)
+            + estimateSize(commandLine);
+
+        if (fullWriteRequired) {
+            delta.setFullEntity(entry.toEntity());
+        } else {
+            for (Map.Entry<String, Object> column : columns.entrySet()) {
+                if (!Objects.equals(persistedColumns.get(column.getKey()), column.getValue())) {
+                    delta.getChangedColumns().put(column.getKey(), column.getValue());
+                }
+            }
+
+            if (!blacklist.equals(persistedBlacklist)) {
+                delta.setDownloaderBlacklist(blacklist);
+            }
+
+            if (!mediaFilePaths.equals(persistedMediaFilePaths)) {
+                delta.setFinalMediaFilePaths(mediaFilePaths);
+            }
+
+            if (!commandLine.equals(persistedCommandLine)) {
+                delta.setLastCommandLine(commandLine);
+            }
+
+            if (mediaInfo != null && mediaInfo != persistedMediaInfo) {
+                delta.setMediaInfo(mediaInfo.toEntity(downloadId));
+            }
+        }
+
+        fullBytes += appendLogLines(delta, LogTypeEnum.ERROR, entry.getErrorLog());
+        fullBytes += appendLogLines(delta, LogTypeEnum.DOWNLOAD, entry.getDownloadLog());
+
+        if (mediaInfo != null) {
+            // The full entity cascades its media info on every merge
+            fullBytes += estimateSize(delta.getMediaInfo() != null
+                ? delta.getMediaInfo() : mediaInfo.toEntity(downloadId));
+        }
+
+        delta.setEstimatedFullBytes(fullBytes);
+
+        persistedColumns = columns;
+        persistedBlacklist = blacklist;
+        persistedMediaFilePaths = mediaFilePaths;
+        persistedCommandLine = commandLine;
+        persistedMediaInfo = mediaInfo;
+        fullWriteRequired = false;
+
+        return delta;
+    }
+
+    private long appendLogLines(QueueEntryDelta delta, LogTypeEnum logType, DownloadLog downloadLog) {
+        long downloadId = delta.getDownloadId();
+
+        // A full write replaces every persisted line, so start over from the oldest line still in memory
+        long fromIndex = delta.isFullWrite() ? 0 : persistedLogIndexes.getOrDefault(logType, 0L);
+
+        Pair<Long, List<String>> tail = downloadLog.getTailSince(fromIndex);
+
+        long lineIndex = tail.getKey();
+        for (String line : tail.getValue()) {
+            delta.getAppendedLogLines().add(new LogLineEntity(downloadId, logType, lineIndex++, line));
+        }
+
+        persistedLogIndexes.put(logType, lineIndex);
+
+        long keptFrom = lineIndex - downloadLog.getTailCapacity();
+        if (keptFrom > 0) {
+            delta.getLogLinesKeptFrom().put(logType, keptFrom);
+        }
+
+        long fullBytes = 0;
+        for (String line : downloadLog.getTail()) {
+            fullBytes += estimateSize(line) + 24;
+        }
+
+        return fullBytes;
+    }
+
+    /**
+     * Marks the entry's current state as already persisted, used after restoring it from the database.
+     */
+    synchronized void markPersisted() {
+        persistedColumns = snapshotColumns();
+        persistedBlacklist = new ArrayList<>(entry.getDownloaderBlacklist());
+        persistedMediaFilePaths = entry.getFinalMediaFiles().stream()
+            .map(File::getAbsolutePath)
+            .collect(Collectors.toCollection(ArrayList::new));
+        persistedCommandLine = new ArrayList<>(entry.getLastCommandLine());
+        persistedMediaInfo = entry.getMediaInfo();
+
+        persistedLogIndexes.put(LogTypeEnum.ERROR, entry.getErrorLog().getNextLineIndex());
+        persistedLogIndexes.put(LogTypeEnum.DOWNLOAD, entry.getDownloadLog().getNextLineIndex());
+
+        fullWriteRequired = false;
+    }
+
+    synchronized void invalidate() {
+        fullWriteRequired = true;
+    }
+
+    private Map<String, Object> snapshotColumns() {
+        // Keys must match QueueEntryEntity attribute names
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("forcedDownloader", entry.getForcedDownloader());
+        columns.put("currentDownloader", entry.getCurrentDownloader());
+        columns.put("currentDownloadType", entry.getCurrentDownloadType());
+        columns.put("currentQueueCategory", entry.getCurrentQueueCategory());
+        columns.put("downloadStatus", entry.getDownloadStatus());
+        columns.put("lastStatusMessage", entry.getLastStatusMessage());
+        columns.put("downloadStarted", entry.getDownloadStarted().get());
+        columns.put("retryCounter", entry.getRetryCounter().get());
+        columns.put("queried", entry.getQueried().get());
+        columns.put("tmpDirectoryPath", entry.getTmpDirectory() != null
+            ? entry.getTmpDirectory().getAbsolutePath() : null);
+
+        return columns;
+    }
+}
@@ -0,0 +1,455 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.downloader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import net.brlns.gdownloader.util.FileUtils;
+
+/**
+ * Indexed view over a line based download archive, like the ones written by yt-dlp and spotDL.
+ *
+ * The archive lines are kept in a hash index keyed by the media id, so lookups and removals don't
+ * touch the archive file. Changes are recorded in an append-only journal next to it:
+ * <ul>
+ * <li>{@code ~line} for lines read from the archive text file</li>
+ * <li>{@code +line} for lines added here and not yet in the text file</li>
+ * <li>{@code -line} as tombstones</li>
+ * <li>{@code =offset} marking how much of the text file is already reflected in the index</li>
+ * <li>{@code *offset} marking the text file as rewritten from the index</li>
+ * </ul>
+ * Lines appended to the text file by the downloaders themselves are picked up incrementally from the last offset.
+ *
+ * The text file is only rewritten from the index when it is needed again after removals, and the
+ * journal is compacted once it grows well past the number of live lines.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Slf4j
+public class DownloadArchive {
+
+    private static final int COMPACTION_MIN_RECORDS = 1024;
+
+    private final File textFile;
+    private final File journalFile;
+    private final Function<String, String> keyExtractor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Keyed by id, different extractors may share the same id
+    private final Map<String, List<String>> index = new HashMap<>();
+
+    private int lineCount;
+    private long textOffset;
+    private int journalRecords;
+
+    private boolean loaded;
+    private boolean dirty;
+
+    /**
+     * @param keyExtractorIn maps an archive line to the key it is looked up and removed by.
+     */
+    public DownloadArchive(File textFileIn, Function<String, String> keyExtractorIn) {
+        textFile = textFileIn;
+        journalFile = new File(textFileIn.getParentFile(), textFileIn.getName() + ".journal");
+        keyExtractor = keyExtractorIn;
+    }
+
+    public boolean contains(String key) {
+        lock.lock();
+        try {
+            ensureLoaded();
+            syncText();
+
+            return index.containsKey(key);
+        } catch (IOException e) {
+            log.error("Cannot read download archive {}", textFile, e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks for an exact archive line, unlike {@link #contains(String)} which matches any line under the key.
+     */
+    public boolean containsLine(String line) {
+        lock.lock();
+        try {
+            ensureLoaded();
+            syncText();
+
+            List<String> lines = index.get(keyExtractor.apply(line));
+            return lines != null && lines.contains(line);
+        } catch (IOException e) {
+            log.error("Cannot read download archive {}", textFile, e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            ensureLoaded();
+            syncText();
+
+            return lineCount;
+        } catch (IOException e) {
+            log.error("Cannot read download archive {}", textFile, e);
+            return lineCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void add(String line) {
+        lock.lock();
+        try {
+            ensureLoaded();
+
+            if (addToIndex(line)) {
+                appendJournal(List.of("+" + line));
+                dirty = true;
+            }
+        } catch (IOException e) {
+            log.error("Cannot write download archive journal {}", journalFile, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every line recorded under the given key.
+     *
+     * @return true if anything was removed.
+     */
+    public boolean remove(String key) {
+        lock.lock();
+        try {
+            ensureLoaded();
+            syncText();
+
+            List<String> lines = index.remove(key);
+            if (lines == null) {
+                return false;
+            }
+
+            lineCount -= lines.size();
+
+            List<String> records = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                records.add("-" + line);
+            }
+
+            appendJournal(records);
+            dirty = true;
+
+            if (journalRecords > COMPACTION_MIN_RECORDS && journalRecords > lineCount * 2) {
+                compact();
+            }
+
+            return true;
+        } catch (IOException e) {
+            log.error("Cannot update download archive {}", textFile, e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Brings the archive text file up to date with the index, rewriting it only if lines were removed
+     * since the last export.
+     *
+     * @return the archive text file, for use by the downloaders.
+     */
+    public File export() {
+        lock.lock();
+        try {
+            ensureLoaded();
+            syncText();
+
+            if (dirty) {
+                writeText();
+            }
+        } catch (IOException e) {
+            log.error("Cannot export download archive {}", textFile, e);
+        } finally {
+            lock.unlock();
+        }
+
+        return textFile;
+    }
+
+    private void ensureLoaded() throws IOException {
+        if (loaded) {
+            return;
+        }
+
+        loaded = true;
+
+        if (!journalFile.exists()) {
+            // First run over an existing text archive, the text file is the whole truth
+            for (String line : readText(0)) {
+                addToIndex(line);
+            }
+
+            compact();
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+            String record;
+            while ((record = reader.readLine()) != null) {
+                if (record.isEmpty()) {
+                    continue;
+                }
+
+                String value = record.substring(1);
+
+                switch (record.charAt(0)) {
+                    case '~' ->
+                        addToIndex(value);
+                    case '+' -> {
+                        addToIndex(value);
+                        dirty = true;
+                    }
+                    case '-' -> {
+                        removeFromIndex(value);
+                        dirty = true;
+                    }
+                    case '=', '*' -> {
+                        try {
+                            textOffset = Long.parseLong(value);
+                        } catch (NumberFormatException e) {
+                            log.warn("Ignoring malformed archive journal record: {}", record);
+                        }
+
+                        if (record.charAt(0) == '*') {
+                            dirty = false;
+                        }
+                    }
+                    default ->
+                        log.warn("Ignoring malformed archive journal record: {}", record);
+                }
+
+                journalRecords++;
+            }
+        }
+
+        syncText();
+    }
+
+    /**
+     * Picks up lines the downloaders appended to the text file since it was last read.
+     */
+    private void syncText() throws IOException {
+        long length = textFile.length();
+        if (length == textOffset) {
+            return;
+        }
+
+        if (length < textOffset) {
+            // Rewritten behind our backs, start over from whatever is in there now
+            log.info("Download archive {} changed externally, reindexing", textFile);
+
+            index.clear();
+            lineCount = 0;
+
+            for (String line : readText(0)) {
+                addToIndex(line);
+            }
+
+            dirty = false;
+            compact();
+            return;
+        }
+
+        long previousOffset = textOffset;
+
+        List<String> records = new ArrayList<>();
+        for (String line : readText(textOffset)) {
+            if (addToIndex(line)) {
+                records.add("~" + line);
+            }
+        }
+
+        if (textOffset != previousOffset) {
+            records.add("=" + textOffset);
+            appendJournal(records);
+        }
+    }
+
+    /**
+     * Reads complete lines starting at the given offset and advances {@link #textOffset} past them.
+     * A trailing unterminated line is left for the next read, it may still be being written.
+     */
+    private List<String> readText(long offset) throws IOException {
+        List<String> lines = new ArrayList<>();
+
+        if (!textFile.exists()) {
+            textOffset = 0;
+            return lines;
+        }
+
+        byte[] bytes;
+        try (RandomAccessFile file = new RandomAccessFile(textFile, "r")) {
+            long length = file.length() - offset;
+            if (length <= 0) {
+                textOffset = offset;
+                return lines;
+            }
+
+            bytes = new byte[(int)Math.min(length, Integer.MAX_VALUE - 8)];
+            file.seek(offset);
+            file.readFully(bytes);
+        }
+
+        int consumed = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                String line = new String(bytes, consumed, i - consumed, StandardCharsets.UTF_8).strip();
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+
+                consumed = i + 1;
+            }
+        }
+
+        textOffset = offset + consumed;
+        return lines;
+    }
+
+    private void writeText() throws IOException {
+        Path path = textFile.toPath();
+        Path tmpPath = path.resolveSibling(textFile.getName() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(tmpPath, StandardCharsets.UTF_8)) {
+            for (List<String> lines : index.values()) {
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        }
+
+        FileUtils.atomicMove(tmpPath, path);
+
+        textOffset = textFile.length();
+        dirty = false;
+
+        appendJournal(List.of("*" + textOffset));
+    }
+
+    /**
+     * Rewrites the journal with only the live lines.
+     */
+    private void compact() throws IOException {
+        if (dirty) {
+            // Tombstones are about to be dropped, the text file must not contain those lines anymore
+            writeText();
+        }
+
+        Path path = journalFile.toPath();
+        Path tmpPath = path.resolveSibling(journalFile.getName() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(tmpPath, StandardCharsets.UTF_8)) {
+            for (List<String> lines : index.values()) {
+                for (String line : lines) {
+                    writer.write('~');
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+
+            writer.write("=" + textOffset);
+            writer.write('\n');
+        }
+
+        FileUtils.atomicMove(tmpPath, path);
+
+        journalRecords = lineCount + 1;
+    }
+
+    private void appendJournal(List<String> records) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(journalFile.toPath(), StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String record : records) {
+                writer.write(record);
+                writer.write('\n');
+            }
+        }
+
+        journalRecords += records.size();
+    }
+
+    private boolean addToIndex(String line) {
+        String key = keyExtractor.apply(line);
+
+        List<String> lines = index.get(key);
+        if (lines == null) {
+            index.put(key, List.of(line));
+        } else if (!lines.contains(line)) {
+            List<String> merged = new ArrayList<>(lines);
+            merged.add(line);
+
+            index.put(key, List.copyOf(merged));
+        } else {
+            return false;
+        }
+
+        lineCount++;
+        return true;
+    }
+
+    private void removeFromIndex(String line) {
+        String key = keyExtractor.apply(line);
+
+        List<String> lines = index.get(key);
+        if (lines == null || !lines.contains(line)) {
+            return;
+        }
+
+        List<String> remaining = new ArrayList<>(lines);
+        remaining.remove(line);
+
+        if (remaining.isEmpty()) {
+            index.remove(key);
+        } else {
+            index.put(key, List.copyOf(remaining));
+        }
+
+        lineCount--;
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.downloader;
+
+import jakarta.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import net.brlns.gdownloader.GDownloader;
+import net.brlns.gdownloader.util.Pair;
+import net.brlns.gdownloader.util.collection.RingBuffer;
+
+/**
+ * Per-download log that keeps only its most recent lines in memory.
+ *
+ * Older lines are spilled in batches to a gzip file in the work directory. Batches are compressed
+ * into a single open gzip member, which is only finished once the log is flushed or read back;
+ * the next spill then starts a new member, which GZIPInputStream reads as one continuous stream.
+ * Only the in-memory tail is persisted to the database.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Slf4j
+public class DownloadLog {
+
+    private static final String LOG_DIRECTORY = "download_logs";
+    private static final String LOG_EXTENSION = ".log.gz";
+
+    public static final int DEFAULT_TAIL_SIZE = 200;
+
+    private static final int SPILL_BATCH_SIZE = 64;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final RingBuffer<String> tail;
+    private final List<String> pendingSpill = new ArrayList<>();
+
+    private final String name;
+    private final long downloadId;
+
+    private File spillFile;
+
+    @Nullable
+    private BufferedWriter spillWriter;
+
+    // Index the next added line will have, counting from the very first line of this download
+    private long nextLineIndex;
+
+    public DownloadLog(String nameIn, int tailSize, long downloadIdIn) {
+        name = nameIn;
+        downloadId = downloadIdIn;
+        tail = new RingBuffer<>(tailSize);
+    }
+
+    /**
+     * Appends a line, consecutive duplicates are dropped.
+     */
+    public void add(String line) {
+        lock.lock();
+        try {
+            if (line.equals(tail.peekLast())) {
+                return;
+            }
+
+            nextLineIndex++;
+
+            String evicted = tail.add(line);
+            if (evicted != null) {
+                pendingSpill.add(evicted);
+
+                if (pendingSpill.size() >= SPILL_BATCH_SIZE) {
+                    writePendingSpill();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void addAll(Collection<String> lines) {
+        for (String line : lines) {
+            add(line);
+        }
+    }
+
+    /**
+     * Loads a previously persisted tail without treating its lines as new.
+     */
+    public void restore(List<String> lines, long nextLineIndexIn) {
+        lock.lock();
+        try {
+            addAll(lines);
+
+            nextLineIndex = nextLineIndexIn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return tail.isEmpty();
+    }
+
+    public long getNextLineIndex() {
+        lock.lock();
+        try {
+            return nextLineIndex;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getTailCapacity() {
+        return tail.capacity();
+    }
+
+    /**
+     * @return the index of the first returned line, paired with every line still in memory from {@code fromLineIndex} onwards.
+     */
+    public Pair<Long, List<String>> getTailSince(long fromLineIndex) {
+        lock.lock();
+        try {
+            List<String> lines = tail.snapshotAsList();
+
+            long firstIndex = nextLineIndex - lines.size();
+            long startIndex = Math.max(fromLineIndex, firstIndex);
+
+            int offset = (int)Math.min(startIndex - firstIndex, lines.size());
+
+            return new Pair<>(startIndex, lines.subList(offset, lines.size()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the lines currently held in memory, oldest first.
+     */
+    public ArrayList<String> getTail() {
+        return tail.snapshotAsList();
+    }
+
+    /**
+     * @return the full log, including lines that were spilled to disk.
+     */
+    public List<String> readAll() {
+        lock.lock();
+        try {
+            writePendingSpill();
+            closeSpillWriter();
+
+            List<String> lines = new ArrayList<>();
+
+            File spillFile = getSpillFile();
+            if (spillFile.exists()) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new FileInputStream(spillFile)), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        lines.add(line);
+                    }
+                } catch (IOException e) {
+                    log.warn("Cannot read spilled log {}", spillFile, e);
+                }
+            }
+
+            lines.addAll(tail.snapshotAsList());
+
+            return lines;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes out lines evicted from memory that are still waiting for a full batch and finishes
+     * the gzip member being written, releasing the file until the next spill.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            writePendingSpill();
+            closeSpillWriter();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void delete() {
+        lock.lock();
+        try {
+            tail.clear();
+            pendingSpill.clear();
+
+            closeSpillWriter();
+
+            Files.deleteIfExists(getSpillFile().toPath());
+        } catch (IOException e) {
+            log.warn("Cannot delete spilled log {}", spillFile, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writePendingSpill() {
+        assert lock.isHeldByCurrentThread();
+
+        if (pendingSpill.isEmpty()) {
+            return;
+        }
+
+        File spillFile = getSpillFile();
+
+        try {
+            if (spillWriter == null) {
+                Files.createDirectories(spillFile.getParentFile().toPath());
+
+                spillWriter = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(new FileOutputStream(spillFile, true)), StandardCharsets.UTF_8));
+            }
+
+            for (String line : pendingSpill) {
+                // Lines are single-line status messages, but guard the format anyway
+                spillWriter.write(line.replace('\n', ' ').replace('\r', ' '));
+                spillWriter.newLine();
+            }
+        } catch (IOException e) {
+            log.warn("Cannot spill log to {}", spillFile, e);
+
+            closeSpillWriter();
+        } finally {
+            pendingSpill.clear();
+        }
+    }
+
+    private void closeSpillWriter() {
+        assert lock.isHeldByCurrentThread();
+
+        if (spillWriter == null) {
+            return;
+        }
+
+        try {
+            spillWriter.close();
+        } catch (IOException e) {
+            log.warn("Cannot finish spilled log {}", spillFile, e);
+        } finally {
+            spillWriter = null;
+        }
+    }
+
+    private File getSpillFile() {
+        if (spillFile == null) {
+            spillFile = new File(getLogDirectory(), downloadId + "_" + name + LOG_EXTENSION);
+        }
+
+        return spillFile;
+    }
+
+    /**
+     * Removes spilled logs that do not belong to any of the given downloads.
+     */
+    public static void purgeOrphaned(Set<Long> liveDownloadIds) {
+        File[] files = getLogDirectory().listFiles((dir, fileName) -> fileName.endsWith(LOG_EXTENSION));
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            String fileName = file.getName();
+            int separator = fileName.indexOf('_');
+            if (separator <= 0) {
+                continue;
+            }
+
+            try {
+                long downloadId = Long.parseLong(fileName.substring(0, separator));
+                if (liveDownloadIds.contains(downloadId)) {
+                    continue;
+                }
+            } catch (NumberFormatException e) {
+                continue;
+            }
+
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                log.warn("Cannot delete orphaned log {}", file, e);
+            }
+        }
+    }
+
+    private static File getLogDirectory() {
+        return new File(GDownloader.getWorkDirectory(), LOG_DIRECTORY);
+    }
+}
@@ -23,6 +23,7 @@ import java.io.File;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -34,6 +35,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.brlns.gdownloader.GDownloader;
 import net.brlns.gdownloader.downloader.enums.CloseReasonEnum;
@@ -42,20 +44,25 @@ import net.brlns.gdownloader.downloader.enums.DownloaderIdEnum;
 import net.brlns.gdownloader.downloader.enums.QueueCategoryEnum;
 import net.brlns.gdownloader.downloader.extractors.MetadataManager;
 import net.brlns.gdownloader.downloader.structs.DownloadResult;
+import net.brlns.gdownloader.downloader.structs.MediaInfo;
+import net.brlns.gdownloader.downloader.structs.PlaylistExpansionResult;
 import net.brlns.gdownloader.event.EventDispatcher;
 import net.brlns.gdownloader.event.IEvent;
 import net.brlns.gdownloader.persistence.PersistenceManager;
 import net.brlns.gdownloader.persistence.entity.CounterTypeEnum;
+import net.brlns.gdownloader.persistence.entity.LogLineEntity;
+import net.brlns.gdownloader.persistence.entity.LogTypeEnum;
 import net.brlns.gdownloader.persistence.entity.QueueEntryEntity;
 import net.brlns.gdownloader.settings.enums.PlayListOptionEnum;
 import net.brlns.gdownloader.settings.filters.AbstractUrlFilter;
-import net.brlns.gdownloader.settings.filters.GenericFilter;
 import net.brlns.gdownloader.settings.filters.YoutubeFilter;
+import net.brlns.gdownloader.settings.filters.UrlFilterDispatcher;
 import net.brlns.gdownloader.settings.filters.YoutubePlaylistFilter;
 import net.brlns.gdownloader.ui.GUIManager;
 import net.brlns.gdownloader.ui.MediaCard;
 import net.brlns.gdownloader.ui.message.MessageTypeEnum;
 import net.brlns.gdownloader.ui.message.ToastMessenger;
+import net.brlns.gdownloader.util.ParsedUrl;
 import net.brlns.gdownloader.util.collection.ConcurrentRearrangeableDeque;
 import net.brlns.gdownloader.util.collection.ExpiringSet;
 import net.brlns.gdownloader.util.collection.LinkedIterableBlockingQueue;
@@ -74,6 +81,12 @@ import static net.brlns.gdownloader.util.URLUtils.*;
 @Slf4j
 public class DownloadManager implements IEvent {
 
+    private static final int RESTORE_PAGE_SIZE = 250;
+
+    private static final int MAX_CONCURRENT_METADATA_QUERIES = 2;
+    // How far into the download queue metadata is fetched ahead of everything else
+    private static final int METADATA_LOOKAHEAD = 8;
+
     @Getter
     private final GDownloader main;
 
@@ -81,13 +94,22 @@ public class DownloadManager implements IEvent {
 
     private final ExecutorService processMonitor;
 
+    @Getter
+    private final MetadataCache metadataCache;
+
     @Getter
     private final MetadataManager metadataManager;
 
+    @Getter
+    private final ThumbnailPipeline thumbnailPipeline;
+
     private final List<AbstractDownloader> downloaders = new ArrayList<>();
 
     private final Set<String> capturedLinks = new HashSet<>();
     private final Set<String> capturedPlaylists = new HashSet<>();
+
+    // Live entries by media identity, to catch the same media captured through different urls
+    private final Map<String, QueueEntry> mediaIdentities = new ConcurrentHashMap<>();
     private final ReentrantLock linkCaptureLock = new ReentrantLock(true);// Fair-mode reentrant lock
 
     private final AtomicInteger currentlyQueryingCount = new AtomicInteger();
@@ -114,6 +136,9 @@ public class DownloadManager implements IEvent {
 
     private final ExpiringSet<String> urlIgnoreSet = new ExpiringSet<>(TimeUnit.SECONDS, 20);
 
+    // Rebuilt lazily from the settings, see invalidateUrlFilters()
+    private volatile UrlFilterDispatcher urlFilterDispatcher;
+
     private final ExecutorService forcefulExecutor = Executors.newVirtualThreadPerTaskExecutor();// No limits, power to ya
     private final String _forceStartKey = l10n("gui.force_download_start");
     private final String _restartKey = l10n("gui.restart_download");
@@ -123,7 +148,9 @@ public class DownloadManager implements IEvent {
         main = mainIn;
 
         persistence = main.getPersistenceManager();
-        metadataManager = new MetadataManager();
+        metadataCache = new MetadataCache(persistence);
+        metadataManager = new MetadataManager(metadataCache);
+        thumbnailPipeline = new ThumbnailPipeline(main, persistence.getThumbnails());
 
         processMonitor = Executors.newSingleThreadExecutor();
         processMonitor.submit(() -> {
@@ -184,38 +211,38 @@ public class DownloadManager implements IEvent {
                 GDownloader.GLOBAL_THREAD_POOL.submitWithPriority(() -> {
                     linkCaptureLock.lock();// Intentionally block url capture during the entire restoring proccess
                     try {
-                        int count = 0;
-                        for (QueueEntryEntity entity : persistence.getQueueEntries().getAll()) {
-                            String downloadUrl = entity.getUrl();
-
-                            capturedLinks.add(downloadUrl);
-                            capturedLinks.add(entity.getOriginalUrl());
+                        Set<Long> restoredIds = new HashSet<>();
 
-                            List<AbstractDownloader> compatibleDownloaders = getCompatibleDownloaders(downloadUrl);
+                        boolean restoreComplete = false;
+                        try {
+                            // Active downloads first, so the queue is usable while the history is still loading
+                            int count = restorePages(List.of(QueueCategoryEnum.QUEUED, QueueCategoryEnum.RUNNING), true, restoredIds);
+                            count += restorePages(List.of(QueueCategoryEnum.FAILED, QueueCategoryEnum.COMPLETED), false, restoredIds);
 
-                            if (compatibleDownloaders.isEmpty()) {
-                                log.error("No compatible downloaders found for: {}", downloadUrl);
-                                continue;
+                            if (count > 0) {
+                                log.info("Successfully restored {} downloads", count);
+                            } else {
+                                log.info("No downloads to restore");
                             }
 
-                            MediaCard mediaCard = main.getGuiManager().addMediaCard(downloadUrl);
-
-                            QueueEntry queueEntry = QueueEntry.fromEntity(entity, mediaCard, compatibleDownloaders);
+                            restoreComplete = true;
+                        } catch (Exception e) {
+                            log.error("Session restore stopped after {} downloads", restoredIds.size());
+                            GDownloader.handleException(e);
+                        }
 
-                            if (queueEntry.getCurrentQueueCategory() == QueueCategoryEnum.RUNNING) {
-                                queueEntry.updateStatus(DownloadStatusEnum.STOPPED, l10n("gui.download_status.not_started"));
-                            }
+                        // Spilled logs of entries that could not be read are not orphans
+                        if (restoreComplete) {
+                            DownloadLog.purgeOrphaned(restoredIds);
+                        }
 
-                            initializeAndEnqueueEntry(queueEntry);
+                        metadataCache.purgeExpired();
 
-                            count++;
-                        }
+                        Set<String> thumbnailHashes = persistence.getMediaInfos().getThumbnailHashes();
+                        thumbnailHashes.addAll(persistence.getMetadataCache().getThumbnailHashes());
+                        thumbnailHashes.addAll(thumbnailPipeline.collectGarbage());
 
-                        if (count > 0) {
-                            log.info("Successfully restored {} downloads", count);
-                        } else {
-                            log.info("No downloads to restore");
-                        }
+                        persistence.getThumbnails().collectGarbage(thumbnailHashes);
                     } finally {
                         linkCaptureLock.unlock();
                     }
@@ -226,6 +253,95 @@ public class DownloadManager implements IEvent {
         }
     }
 
+    /**
+     * Streams checkpoints from the database one page at a time, so only a single page of entities is held at once.
+     *
+     * @return the number of restored downloads.
+     */
+    private int restorePages(List<QueueCategoryEnum> categories, boolean includeUncategorized, Set<Long> restoredIds) {
+        int count = 0;
+        long afterId = Long.MIN_VALUE;
+
+        while (true) {
+            List<QueueEntryEntity> page = persistence.getQueueEntries()
+                .getPage(categories, includeUncategorized, afterId, RESTORE_PAGE_SIZE);
+
+            if (page.isEmpty()) {
+                break;
+            }
+
+            List<Long> pageIds = page.stream()
+                .map(QueueEntryEntity::getDownloadId)
+                .collect(Collectors.toList());
+
+            Map<Long, List<LogLineEntity>> logLines = persistence.getLogLines().getLines(pageIds).stream()
+                .collect(Collectors.groupingBy(LogLineEntity::getDownloadId));
+
+            for (QueueEntryEntity entity : page) {
+                restoredIds.add(entity.getDownloadId());
+
+                if (restoreEntry(entity, logLines.getOrDefault(entity.getDownloadId(), List.of()))) {
+                    count++;
+                }
+            }
+
+            if (page.size() < RESTORE_PAGE_SIZE) {
+                break;
+            }
+
+            afterId = page.get(page.size() - 1).getDownloadId();
+        }
+
+        return count;
+    }
+
+    private boolean restoreEntry(QueueEntryEntity entity, List<LogLineEntity> logLines) {
+        String downloadUrl = entity.getUrl();
+
+        capturedLinks.add(downloadUrl);
+        capturedLinks.add(entity.getOriginalUrl());
+
+        List<AbstractDownloader> compatibleDownloaders = getCompatibleDownloaders(downloadUrl);
+
+        if (compatibleDownloaders.isEmpty()) {
+            log.error("No compatible downloaders found for: {}", downloadUrl);
+            return false;
+        }
+
+        MediaCard mediaCard = main.getGuiManager().addMediaCard(downloadUrl);
+
+        QueueEntry queueEntry = QueueEntry.fromEntity(entity, mediaCard, compatibleDownloaders);
+        restoreLog(queueEntry.getErrorLog(), logLines, LogTypeEnum.ERROR);
+        restoreLog(queueEntry.getDownloadLog(), logLines, LogTypeEnum.DOWNLOAD);
+
+        // Everything loaded so far is already in the database
+        queueEntry.markCheckpointed();
+
+        if (queueEntry.getCurrentQueueCategory() == QueueCategoryEnum.RUNNING) {
+            queueEntry.updateStatus(DownloadStatusEnum.STOPPED, l10n("gui.download_status.not_started"));
+        }
+
+        initializeAndEnqueueEntry(queueEntry);
+
+        return true;
+    }
+
+    private void restoreLog(DownloadLog downloadLog, List<LogLineEntity> logLines, LogTypeEnum logType) {
+        List<String> lines = new ArrayList<>();
+        long nextLineIndex = 0;
+
+        for (LogLineEntity line : logLines) {
+            if (line.getLogType() == logType) {
+                lines.add(line.getContent());
+                nextLineIndex = line.getLineIndex() + 1;
+            }
+        }
+
+        if (!lines.isEmpty()) {
+            downloadLog.restore(lines, nextLineIndex);
+        }
+    }
+
     public boolean isBlocked() {
         return downloadsBlocked.get();
     }
@@ -259,9 +375,14 @@ public class DownloadManager implements IEvent {
     }
 
     private List<AbstractDownloader> getCompatibleDownloaders(String inputUrl) {
-        return downloaders.stream()
-            .filter(downloader -> downloader.canConsumeUrl(inputUrl))
-            .collect(Collectors.toUnmodifiableList());
+        List<AbstractDownloader> compatible = new ArrayList<>(downloaders.size());
+        for (AbstractDownloader downloader : downloaders) {
+            if (downloader.canConsumeUrl(inputUrl)) {
+                compatible.add(downloader);
+            }
+        }
+
+        return Collections.unmodifiableList(compatible);
     }
 
     public List<AbstractDownloader> getEnabledDownloaders() {
@@ -275,6 +396,15 @@ public class DownloadManager implements IEvent {
     }
 
     public CompletableFuture<Boolean> captureUrl(@Nullable String inputUrl, boolean force, PlayListOptionEnum playlistOption) {
+        // Parsed once here, every check below reads from the same view
+        ParsedUrl parsedUrl = inputUrl != null ? ParsedUrl.parse(inputUrl.trim()) : null;
+        if (parsedUrl != null) {
+            String canonicalUrl = canonicalizeUrl(parsedUrl);
+            if (!canonicalUrl.equals(inputUrl)) {
+                return captureUrl(canonicalUrl, force, playlistOption);
+            }
+        }
+
         CompletableFuture<Boolean> future = new CompletableFuture<>();
 
         List<AbstractDownloader> compatibleDownloaders = getCompatibleDownloaders(inputUrl);
@@ -316,11 +446,11 @@ public class DownloadManager implements IEvent {
             if (filter instanceof YoutubePlaylistFilter) {
                 switch (playlistOption) {
                     case DOWNLOAD_PLAYLIST: {
-                        filteredUrl = filterPlaylist(inputUrl);
+                        filteredUrl = filterPlaylist(parsedUrl);
 
                         if (filteredUrl != null) {
                             if (!capturedPlaylists.add(filteredUrl)) {
-                                String video = filterVideo(inputUrl);
+                                String video = filterVideo(parsedUrl);
 
                                 if (main.getConfig().isDebugMode()) {
                                     log.debug("Individual video url is {}", video);
@@ -339,13 +469,13 @@ public class DownloadManager implements IEvent {
                     }
 
                     case DOWNLOAD_SINGLE: {
-                        String playlist = filterPlaylist(inputUrl);
+                        String playlist = filterPlaylist(parsedUrl);
 
                         if (playlist != null) {
                             capturedPlaylists.add(playlist);
                         }
 
-                        String video = filterVideo(inputUrl);
+                        String video = filterVideo(parsedUrl);
 
                         if (main.getConfig().isDebugMode()) {
                             log.debug("Video url is {}", video);
@@ -361,7 +491,7 @@ public class DownloadManager implements IEvent {
 
                     case ALWAYS_ASK:
                     default: {
-                        String playlist = filterPlaylist(inputUrl);
+                        String playlist = filterPlaylist(parsedUrl);
 
                         if (playlist == null) {
                             future.complete(false);
@@ -428,7 +558,7 @@ public class DownloadManager implements IEvent {
                         } else {
                             // TODO I'm assuming this is a wanted behavior - having subsequent links being treated as individual videos
                             // It's odd that you'd download a whole playlist and then an individual video from it though, maybe investigate use cases
-                            String video = filterVideo(inputUrl);
+                            String video = filterVideo(parsedUrl);
 
                             if (main.getConfig().isDebugMode()) {
                                 log.debug("Individual video url is {}", video);
@@ -444,7 +574,7 @@ public class DownloadManager implements IEvent {
                     }
                 }
             } else if (filter instanceof YoutubeFilter) {
-                filteredUrl = filterVideo(inputUrl);
+                filteredUrl = filterVideo(parsedUrl);
             } else {
                 filteredUrl = inputUrl;
             }
@@ -462,11 +592,7 @@ public class DownloadManager implements IEvent {
 
                 MediaCard mediaCard = main.getGuiManager().addMediaCard(filteredUrl);
 
-                long downloadId = downloadCounter.incrementAndGet();
-
-                if (persistence.isInitialized()) {
-                    persistence.getCounters().setCurrentValue(CounterTypeEnum.DOWNLOAD_ID, downloadId);
-                }
+                long downloadId = nextDownloadIds(1);
 
                 QueueEntry queueEntry = new QueueEntry(
                     main,
@@ -494,6 +620,157 @@ public class DownloadManager implements IEvent {
         return future;
     }
 
+    /**
+     * Captures several urls at once, as pasted or dropped together.
+     *
+     * The whole batch is filtered under a single acquisition of the capture lock, ids are allocated
+     * in one block, cards are handed to the UI together and the checkpoints are written in the same batch.
+     * Playlists may need to ask the user what to do with them, those still go through {@link #captureUrl}.
+     *
+     * @return the number of urls that were captured.
+     */
+    public CompletableFuture<Integer> captureUrls(Collection<String> inputUrls, boolean force) {
+        Map<String, ParsedUrl> urls = new LinkedHashMap<>();
+        for (String inputUrl : inputUrls) {
+            if (inputUrl != null) {
+                ParsedUrl parsedUrl = ParsedUrl.parse(inputUrl.trim());
+
+                String canonicalUrl = canonicalizeUrl(parsedUrl);
+                if (!canonicalUrl.equals(parsedUrl.getUrl())) {
+                    parsedUrl = ParsedUrl.parse(canonicalUrl);
+                }
+
+                urls.putIfAbsent(canonicalUrl, parsedUrl);
+            }
+        }
+
+        if (downloadsBlocked.get() || urls.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        boolean allowAnyLink = main.getConfig().isCaptureAnyLinks() || force;
+
+        List<CaptureCandidate> candidates = new ArrayList<>();
+        List<String> playlistUrls = new ArrayList<>();
+
+        linkCaptureLock.lock();
+        try {
+            for (ParsedUrl parsedUrl : urls.values()) {
+                String inputUrl = parsedUrl.getUrl();
+                if (capturedLinks.contains(inputUrl)) {
+                    continue;
+                }
+
+                List<AbstractDownloader> compatibleDownloaders = getCompatibleDownloaders(inputUrl);
+                if (compatibleDownloaders.isEmpty()) {
+                    continue;
+                }
+
+                Optional<AbstractUrlFilter> filterOptional = getFilterForUrl(inputUrl, allowAnyLink);
+                if (!filterOptional.isPresent()) {
+                    log.error("No filter found for url: {}. Ignoring.", inputUrl);
+                    continue;
+                }
+
+                AbstractUrlFilter filter = filterOptional.get();
+                if (main.getConfig().isDebugMode()) {
+                    log.debug("URL: {} matched {}", inputUrl, filter);
+                }
+
+                if (filter instanceof YoutubePlaylistFilter) {
+                    playlistUrls.add(inputUrl);
+                    continue;
+                }
+
+                if (!filter.canAcceptUrl(inputUrl, main)) {
+                    log.info("Filter {} has denied to accept url {}; Verify settings.", filter, inputUrl);
+                    continue;
+                }
+
+                String filteredUrl = filter instanceof YoutubeFilter ? filterVideo(parsedUrl) : inputUrl;
+                if (filteredUrl == null) {
+                    log.error("Filtered url was null.");
+                    continue;
+                }
+
+                if (capturedLinks.add(filteredUrl)) {
+                    capturedLinks.add(inputUrl);
+
+                    log.info("Captured {}", inputUrl);
+
+                    candidates.add(new CaptureCandidate(inputUrl, filteredUrl, filter, compatibleDownloaders));
+                }
+            }
+
+            if (!candidates.isEmpty()) {
+                List<MediaCard> mediaCards = main.getGuiManager().addMediaCards(candidates.stream()
+                    .map(CaptureCandidate::getFilteredUrl)
+                    .collect(Collectors.toList()));
+
+                long firstId = nextDownloadIds(candidates.size());
+
+                List<QueueEntry> queueEntries = new ArrayList<>(candidates.size());
+                for (int i = 0; i < candidates.size(); i++) {
+                    CaptureCandidate candidate = candidates.get(i);
+
+                    QueueEntry queueEntry = new QueueEntry(
+                        main,
+                        mediaCards.get(i),
+                        candidate.getFilter(),
+                        candidate.getInputUrl(),
+                        candidate.getFilteredUrl(),
+                        firstId + i,
+                        candidate.getCompatibleDownloaders());
+
+                    queueEntry.updateStatus(DownloadStatusEnum.QUERYING, l10n("gui.download_status.querying"));
+
+                    initializeAndEnqueueEntry(queueEntry);
+
+                    queueEntries.add(queueEntry);
+                }
+
+                if (persistence.isInitialized()) {
+                    persistence.getWriteQueue().saveQueueEntries(queueEntries);
+                }
+            }
+        } finally {
+            linkCaptureLock.unlock();
+        }
+
+        if (playlistUrls.isEmpty()) {
+            return CompletableFuture.completedFuture(candidates.size());
+        }
+
+        List<CompletableFuture<Boolean>> playlistFutures = playlistUrls.stream()
+            .map(url -> captureUrl(url, force))
+            .collect(Collectors.toList());
+
+        return CompletableFuture.allOf(playlistFutures.toArray(CompletableFuture[]::new))
+            .thenApply(unused -> {
+                int captured = candidates.size();
+                for (CompletableFuture<Boolean> future : playlistFutures) {
+                    if (future.join()) {
+                        captured++;
+                    }
+                }
+
+                return captured;
+            });
+    }
+
+    /**
+     * Allocates a contiguous range of download ids.
+     *
+     * @return the first id of the range.
+     */
+    private long nextDownloadIds(int count) {
+        if (persistence.isInitialized()) {
+            return persistence.getCounters().nextValues(CounterTypeEnum.DOWNLOAD_ID, count);
+        }
+
+        return downloadCounter.addAndGet(count) - count + 1;
+    }
+
     private void initializeAndEnqueueEntry(QueueEntry queueEntry) {
         queueEntry.getMediaCard().setOnClose((reason) -> {
             queueEntry.close(reason);
@@ -509,6 +786,11 @@ public class DownloadManager implements IEvent {
 
             dequeueFromAll(queueEntry);
 
+            MediaInfo mediaInfo = queueEntry.getMediaInfo();
+            if (mediaInfo != null && mediaInfo.getMediaIdentity() != null) {
+                mediaIdentities.remove(mediaInfo.getMediaIdentity(), queueEntry);
+            }
+
             if (reason != CloseReasonEnum.SHUTDOWN) {
                 deleteCheckpoint(queueEntry);
             }
@@ -535,6 +817,12 @@ public class DownloadManager implements IEvent {
             return downloadDeque.contains(queueEntry);
         });
 
+        MediaInfo mediaInfo = queueEntry.getMediaInfo();
+        if (mediaInfo != null && mediaInfo.getMediaIdentity() != null) {
+            // Restored entries were already checked when first queried
+            mediaIdentities.putIfAbsent(mediaInfo.getMediaIdentity(), queueEntry);
+        }
+
         queryMetadata(queueEntry);
 
         QueueCategoryEnum category = queueEntry.getCurrentQueueCategory();
@@ -553,6 +841,11 @@ public class DownloadManager implements IEvent {
             enqueueLast(queueEntry);
         }
 
+        if (queueEntry.getQueried().get()) {
+            // Restored while its items were still being listed, already captured items are skipped
+            expandIfPlaylist(queueEntry);
+        }
+
         if (main.getConfig().isAutoDownloadStart() && !downloadsRunning.get()) {
             startDownloads(suggestedDownloaderId.get());
         }
@@ -560,36 +853,47 @@ public class DownloadManager implements IEvent {
 
     private void saveCheckpoint(QueueEntry queueEntry) {
         if (persistence.isInitialized()) {
-            persistence.getQueueEntries().upsert(queueEntry.toEntity());
+            persistence.getWriteQueue().saveQueueEntry(queueEntry);
         }
     }
 
     private void deleteCheckpoint(QueueEntry queueEntry) {
         if (persistence.isInitialized()) {
-            persistence.getQueueEntries().remove(queueEntry.getDownloadId());
+            persistence.getWriteQueue().removeQueueEntry(queueEntry.getDownloadId());
         }
     }
 
     private Optional<AbstractUrlFilter> getFilterForUrl(String url, boolean allowAnyLink) {
-        AbstractUrlFilter filter = null;
+        UrlFilterDispatcher dispatcher = getUrlFilterDispatcher();
 
-        for (AbstractUrlFilter filterNeedle : main.getConfig().getUrlFilters()) {
-            if (filterNeedle.matches(url)) {
-                filter = filterNeedle;
-                break;
-            }
+        Optional<AbstractUrlFilter> filter = dispatcher.match(url);
+        if (filter.isEmpty() && allowAnyLink) {
+            filter = dispatcher.getGenericFilter();
         }
 
-        if (filter == null && allowAnyLink) {
-            for (AbstractUrlFilter filterNeedle : main.getConfig().getUrlFilters()) {
-                if (filterNeedle.getId().equals(GenericFilter.ID)) {
-                    filter = filterNeedle;
-                    break;
-                }
+        return filter;
+    }
+
+    private UrlFilterDispatcher getUrlFilterDispatcher() {
+        UrlFilterDispatcher dispatcher = urlFilterDispatcher;
+        if (dispatcher == null) {
+            dispatcher = new UrlFilterDispatcher(main.getConfig().getUrlFilters());
+
+            if (main.getConfig().isDebugMode()) {
+                log.debug("Indexed {} url filters", dispatcher.getIndexedCount());
             }
+
+            urlFilterDispatcher = dispatcher;
         }
 
-        return Optional.ofNullable(filter);
+        return dispatcher;
+    }
+
+    /**
+     * Drops the compiled url filters, they are rebuilt from the settings on the next lookup.
+     */
+    public void invalidateUrlFilters() {
+        urlFilterDispatcher = null;
     }
 
     public boolean isRunning() {
@@ -667,12 +971,13 @@ public class DownloadManager implements IEvent {
             submitDownloadTask(entry, false);
         }
 
-        if (!metadataQueryQueue.isEmpty()) {
-            if (currentlyQueryingCount.get() < 2) {
-                QueueEntry entry = metadataQueryQueue.poll();
-
-                submitQueryMetadataTask(entry);
+        while (!metadataQueryQueue.isEmpty() && currentlyQueryingCount.get() < MAX_CONCURRENT_METADATA_QUERIES) {
+            QueueEntry entry = pollNextMetadataQuery();
+            if (entry == null) {
+                break;
             }
+
+            submitQueryMetadataTask(entry);
         }
 
         if (downloadsRunning.get() && runningDownloads.isEmpty()) {
@@ -842,6 +1147,31 @@ public class DownloadManager implements IEvent {
         metadataQueryQueue.offer(queueEntry);
     }
 
+    /**
+     * Picks the next entry to query. Entries about to be downloaded go first, then the ones
+     * currently on screen, then everything else in capture order.
+     */
+    @Nullable
+    private QueueEntry pollNextMetadataQuery() {
+        int lookahead = Math.max(METADATA_LOOKAHEAD, main.getConfig().getMaxSimultaneousDownloads() * 2);
+
+        for (QueueEntry entry : downloadDeque.head(lookahead)) {
+            if (!entry.getQueried().get() && metadataQueryQueue.remove(entry)) {
+                return entry;
+            }
+        }
+
+        GUIManager guiManager = main.getGuiManager();
+        for (QueueEntry entry : metadataQueryQueue) {
+            if (guiManager.isMediaCardVisible(entry.getMediaCard().getId())
+                && metadataQueryQueue.remove(entry)) {
+                return entry;
+            }
+        }
+
+        return metadataQueryQueue.poll();
+    }
+
     private void submitQueryMetadataTask(QueueEntry queueEntry) {
         currentlyQueryingCount.incrementAndGet();
 
@@ -851,14 +1181,28 @@ public class DownloadManager implements IEvent {
                     return;
                 }
 
+                AbstractDownloader queriedBy = null;
                 for (AbstractDownloader downloader : queueEntry.getDownloaders()) {
                     if (downloader.tryQueryMetadata(queueEntry)) {
+                        queriedBy = downloader;
                         break;
                     }
                 }
 
                 queueEntry.markQueried();
 
+                if (cancelIfDuplicate(queueEntry)) {
+                    return;
+                }
+
+                if (queriedBy != null && completeIfArchived(queriedBy, queueEntry)) {
+                    return;
+                }
+
+                if (expandIfPlaylist(queueEntry)) {
+                    return;
+                }
+
                 if (queueEntry.getDownloadStatus() == DownloadStatusEnum.QUERYING) {
                     queueEntry.updateStatus(DownloadStatusEnum.QUEUED,
                         l10n("gui.download_status.not_started"));
@@ -869,6 +1213,135 @@ public class DownloadManager implements IEvent {
         }, 1);
     }
 
+    /**
+     * Drops a queued entry whose media is already in the queue under a different url.
+     */
+    private boolean cancelIfDuplicate(QueueEntry queueEntry) {
+        MediaInfo mediaInfo = queueEntry.getMediaInfo();
+        String identity = mediaInfo != null ? mediaInfo.getMediaIdentity() : null;
+        if (identity == null) {
+            return false;
+        }
+
+        QueueEntry existing = mediaIdentities.putIfAbsent(identity, queueEntry);
+        if (existing == null || existing == queueEntry) {
+            return false;
+        }
+
+        if (existing.getMediaCard().isClosed()) {
+            mediaIdentities.replace(identity, existing, queueEntry);
+            return false;
+        }
+
+        // Only take it if it was not picked up by a download task in the meantime
+        if (queueEntry.getCancelHook().get() || !downloadDeque.remove(queueEntry)) {
+            return false;
+        }
+
+        log.info("{} is the same media as {}, dropping the duplicate", queueEntry.getUrl(), existing.getUrl());
+
+        main.getGuiManager().removeMediaCard(queueEntry.getMediaCard().getId(), CloseReasonEnum.DUPLICATE);
+
+        return true;
+    }
+
+    /**
+     * Completes an entry right away if the downloader already has it in its archive,
+     * instead of spawning a process just to have it report the same.
+     */
+    private boolean completeIfArchived(AbstractDownloader downloader, QueueEntry queueEntry) {
+        if (queueEntry.getCancelHook().get() || queueEntry.getCurrentQueueCategory() != QUEUED
+            || !downloader.isArchived(queueEntry)) {
+            return false;
+        }
+
+        // Only take it if it was not picked up by a download task in the meantime
+        if (!downloadDeque.remove(queueEntry)) {
+            return false;
+        }
+
+        log.info("{} is already in the {} archive, skipping",
+            queueEntry.getUrl(), downloader.getDownloaderId().getDisplayName());
+
+        queueEntry.updateStatus(DownloadStatusEnum.ALREADY_DOWNLOADED,
+            l10n("gui.download_status.already_downloaded"));
+
+        offerTo(COMPLETED, queueEntry);
+
+        if (main.getConfig().isRemoveSuccessfulDownloads()) {
+            main.getGuiManager().removeMediaCard(queueEntry.getMediaCard().getId(), CloseReasonEnum.SUCCEEDED);
+        }
+
+        return true;
+    }
+
+    /**
+     * Replaces a queued playlist entry with one entry per item, captured as the downloader lists them,
+     * so items are spread across download slots and fail or retry on their own.
+     */
+    private boolean expandIfPlaylist(QueueEntry queueEntry) {
+        if (queueEntry.getCancelHook().get() || queueEntry.getCurrentQueueCategory() != QUEUED) {
+            return false;
+        }
+
+        Optional<AbstractDownloader> downloaderOptional = queueEntry.getDownloaders().stream()
+            .filter(downloader -> downloader.canExpandPlaylist(queueEntry))
+            .findFirst();
+
+        if (downloaderOptional.isEmpty()) {
+            return false;
+        }
+
+        // Only take it if it was not picked up by a download task in the meantime
+        if (!downloadDeque.remove(queueEntry)) {
+            return false;
+        }
+
+        AbstractDownloader downloader = downloaderOptional.get();
+
+        queueEntry.updateStatus(DownloadStatusEnum.QUERYING,
+            l10n("gui.download_status.listing_playlist_items"));
+
+        GDownloader.GLOBAL_THREAD_POOL.submitWithPriority(() -> {
+            AtomicInteger captured = new AtomicInteger();
+            PlaylistExpansionResult result;
+
+            try {
+                result = downloader.expandPlaylist(queueEntry, itemUrls -> {
+                    captured.addAndGet(itemUrls.size());
+                    captureUrls(itemUrls, true);
+                });
+            } catch (Exception e) {
+                log.error("Failed to list the items of {}", queueEntry.getUrl(), e);
+                result = new PlaylistExpansionResult(captured.get(), false);
+            }
+
+            if (queueEntry.getCancelHook().get()) {
+                return;
+            }
+
+            if (result.getListed() == 0) {
+                // Nothing could be listed, fall back to downloading the playlist as a whole
+                queueEntry.updateStatus(DownloadStatusEnum.QUEUED,
+                    l10n("gui.download_status.not_started"));
+
+                enqueueLast(queueEntry);
+            } else if (result.isComplete()) {
+                main.getGuiManager().removeMediaCard(queueEntry.getMediaCard().getId(), CloseReasonEnum.SUCCEEDED);
+            } else {
+                // Keep the playlist around, retrying lists it again and skips the items already captured
+                log.warn("Listing {} stopped after {} items", queueEntry.getUrl(), result.getListed());
+
+                queueEntry.updateStatus(DownloadStatusEnum.FAILED,
+                    l10n("gui.download_status.playlist_listing_incomplete", result.getListed()));
+
+                offerTo(FAILED, queueEntry);
+            }
+        }, 1);
+
+        return true;
+    }
+
     protected void resetDownload(QueueEntry queueEntry) {
         resetDownload(queueEntry, true);
     }
@@ -886,6 +1359,11 @@ public class DownloadManager implements IEvent {
 
         enqueueLast(queueEntry);
 
+        if (queueEntry.getQueried().get()) {
+            // A playlist whose listing stopped partway through is listed again rather than downloaded whole
+            expandIfPlaylist(queueEntry);
+        }
+
         if (fireListeners) {
             fireListeners();
         }
@@ -1122,6 +1600,7 @@ public class DownloadManager implements IEvent {
                 GDownloader.handleException(e);
             } finally {
                 entry.getRunning().set(false);
+                entry.flushLogs();
 
                 dequeue(RUNNING, entry);
             }
@@ -1163,7 +1642,20 @@ public class DownloadManager implements IEvent {
             downloader.close();
         }
 
+        metadataCache.logStats();
+
+        thumbnailPipeline.close();
         processMonitor.shutdownNow();
         forcefulExecutor.shutdownNow();
     }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class CaptureCandidate {
+
+        private final String inputUrl;
+        private final String filteredUrl;
+        private final AbstractUrlFilter filter;
+        private final List<AbstractDownloader> compatibleDownloaders;
+    }
 }
@@ -18,10 +18,8 @@ package net.brlns.gdownloader.downloader;
 
 import jakarta.annotation.Nullable;
 import jakarta.annotation.PreDestroy;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -115,7 +113,7 @@ public class GalleryDlDownloader extends AbstractDownloader {
 
                 PersistenceManager persistence = main.getPersistenceManager();
                 if (!queueEntry.getCancelHook().get() && persistence.isInitialized()) {
-                    persistence.getMediaInfos().addMediaInfo(mediaInfo.toEntity(queueEntry.getDownloadId()));
+                    persistence.getWriteQueue().saveMediaInfo(mediaInfo.toEntity(queueEntry.getDownloadId()));
                 }
 
                 return true;
@@ -285,32 +283,8 @@ public class GalleryDlDownloader extends AbstractDownloader {
         Process process = processBuilder.start();
         entry.setProcess(process);
 
-        String lastOutput = "";
-
-        try (
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while (manager.isRunning() && !entry.getCancelHook().get() && process.isAlive()) {
-                if (Thread.currentThread().isInterrupted()) {
-                    process.destroyForcibly();
-                    throw new InterruptedException("Download interrupted");
-                }
-
-                if (reader.ready()) {
-                    if ((line = reader.readLine()) != null) {
-                        lastOutput = line;
-
-                        processProgress(entry, lastOutput);
-                    }
-                } else {
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException e) {
-                        log.debug("Sleep interrupted, closing process");
-                        process.destroyForcibly();
-                    }
-                }
-            }
+        try {
+            String lastOutput = readProcessOutput(entry, process, this::processProgress);
 
             long stopped = System.currentTimeMillis() - start;
 
@@ -344,12 +318,14 @@ public class GalleryDlDownloader extends AbstractDownloader {
             log.debug("[{}] - {}", entry.getDownloadId(), lastOutput);
         }
 
-        if (lastOutput.startsWith("#") || lastOutput.startsWith(entry.getTmpDirectory().getAbsolutePath())) {
+        String tmpDirectory = entry.getTmpDirectory().getAbsolutePath();
+
+        if (lastOutput.startsWith("#") || lastOutput.startsWith(tmpDirectory)) {
             entry.getMediaCard().setPercentage(-1);
 
             entry.updateStatus(DownloadStatusEnum.DOWNLOADING,
                 StringUtils.getStringAfterLastSeparator(lastOutput
-                    .replace(entry.getTmpDirectory().getAbsolutePath() + File.separator, ""))/*, false*/);
+                    .replace(tmpDirectory + File.separator, ""))/*, false*/);
         } else {
             if (lastOutput.contains("Waiting") && lastOutput.contains("rate limit")) {
                 entry.updateStatus(DownloadStatusEnum.WAITING, lastOutput);
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.downloader;
+
+import net.brlns.gdownloader.util.StreamingLineDecoder;
+
+/**
+ * Interprets the output of a downloader process.
+ *
+ * Output is read in batches. {@link #inspectLine} sees every decoded line, potentially at a high rate,
+ * and must stay allocation-free. {@link #classify} is only called with the last line of each batch,
+ * which is the one that ends up displayed.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@FunctionalInterface
+public interface IOutputLineClassifier {
+
+    /**
+     * Called for every line, for state that must not be missed between batches.
+     * The line is only valid for the duration of the call.
+     */
+    default void inspectLine(QueueEntry entry, StreamingLineDecoder.Line line) {
+
+    }
+
+    void classify(QueueEntry entry, String lastLine);
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.downloader;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.brlns.gdownloader.GDownloader;
+import net.brlns.gdownloader.downloader.structs.MediaInfo;
+import net.brlns.gdownloader.persistence.PersistenceManager;
+import net.brlns.gdownloader.persistence.entity.MetadataCacheEntity;
+import net.brlns.gdownloader.util.collection.LRUCache;
+
+import static net.brlns.gdownloader.util.URLUtils.canonicalizeUrl;
+
+/**
+ * Two-tier cache of query results, so pasting a link again doesn't query it from scratch.
+ *
+ * Recent results are kept in memory and every result is also written to the database, where it
+ * survives the card being removed. Entries are keyed by the source that produced them and the canonical url,
+ * and each source decides how long its results stay valid. Every lookup hands out a fresh copy,
+ * since {@link MediaInfo} is mutated by the entries that use it.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Slf4j
+public class MetadataCache {
+
+    private static final int MEMORY_CAPACITY = 512;
+
+    private final PersistenceManager persistence;
+
+    private final LRUCache<String, CachedMetadata> memory = new LRUCache<>(MEMORY_CAPACITY);
+
+    @Getter
+    private final AtomicLong memoryHits = new AtomicLong();
+    @Getter
+    private final AtomicLong persistentHits = new AtomicLong();
+    @Getter
+    private final AtomicLong misses = new AtomicLong();
+
+    public MetadataCache(PersistenceManager persistenceIn) {
+        persistence = persistenceIn;
+    }
+
+    public Optional<MediaInfo> get(String source, String url) {
+        String key = getKey(source, url);
+        long now = System.currentTimeMillis();
+
+        CachedMetadata cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+        }
+
+        if (cached != null && cached.expiresAt > now) {
+            Optional<MediaInfo> info = cached.toMediaInfo();
+            if (info.isPresent()) {
+                memoryHits.incrementAndGet();
+                return info;
+            }
+        }
+
+        if (persistence.isInitialized()) {
+            Optional<MetadataCacheEntity> entity = persistence.getMetadataCache().getById(key);
+            if (entity.isPresent() && entity.get().getExpiresAt() > now) {
+                cached = new CachedMetadata(entity.get().getMediaInfoJson(),
+                    entity.get().getThumbnailHash(), entity.get().getExpiresAt());
+
+                Optional<MediaInfo> info = cached.toMediaInfo();
+                if (info.isPresent()) {
+                    synchronized (memory) {
+                        memory.put(key, cached);
+                    }
+
+                    persistentHits.incrementAndGet();
+                    return info;
+                }
+            }
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String source, String url, MediaInfo mediaInfo, Duration ttl) {
+        String json;
+        try {
+            json = GDownloader.OBJECT_MAPPER.writeValueAsString(mediaInfo);
+        } catch (Exception e) {
+            log.error("Cannot serialize metadata for {}", url, e);
+            return;
+        }
+
+        String key = getKey(source, url);
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+
+        synchronized (memory) {
+            memory.put(key, new CachedMetadata(json, mediaInfo.getThumbnailHash(), expiresAt));
+        }
+
+        if (persistence.isInitialized()) {
+            persistence.getMetadataCache().upsert(
+                new MetadataCacheEntity(key, json, mediaInfo.getThumbnailHash(), expiresAt));
+        }
+    }
+
+    /**
+     * Attaches a thumbnail stored after the entry was cached, does nothing if there is no such entry.
+     */
+    public void updateThumbnailHash(String source, String url, String thumbnailHash) {
+        String key = getKey(source, url);
+
+        synchronized (memory) {
+            CachedMetadata cached = memory.get(key);
+            if (cached != null) {
+                memory.put(key, new CachedMetadata(cached.json, thumbnailHash, cached.expiresAt));
+            }
+        }
+
+        if (persistence.isInitialized()) {
+            Optional<MetadataCacheEntity> entity = persistence.getMetadataCache().getById(key);
+            if (entity.isPresent() && !thumbnailHash.equals(entity.get().getThumbnailHash())) {
+                entity.get().setThumbnailHash(thumbnailHash);
+
+                persistence.getMetadataCache().upsert(entity.get());
+            }
+        }
+    }
+
+    public void purgeExpired() {
+        if (persistence.isInitialized()) {
+            int removed = persistence.getMetadataCache().removeExpired(System.currentTimeMillis());
+            if (removed > 0) {
+                log.info("Removed {} expired metadata cache entries", removed);
+            }
+        }
+    }
+
+    public void logStats() {
+        long hits = memoryHits.get() + persistentHits.get();
+        long total = hits + misses.get();
+
+        log.info("Metadata cache: {} memory hits, {} persistent hits, {} misses ({}% hit rate)",
+            memoryHits.get(), persistentHits.get(), misses.get(),
+            total > 0 ? hits * 100 / total : 0);
+    }
+
+    private static String getKey(String source, String url) {
+        return source + " " + canonicalizeUrl(url);
+    }
+
+    private static class CachedMetadata {
+
+        private final String json;
+        private final String thumbnailHash;
+        private final long expiresAt;
+
+        private CachedMetadata(String jsonIn, String thumbnailHashIn, long expiresAtIn) {
+            json = jsonIn;
+            thumbnailHash = thumbnailHashIn;
+            expiresAt = expiresAtIn;
+        }
+
+        private Optional<MediaInfo> toMediaInfo() {
+            try {
+                MediaInfo info = GDownloader.OBJECT_MAPPER.readValue(json, MediaInfo.class);
+                info.setThumbnailHash(thumbnailHash);
+
+                return Optional.of(info);
+            } catch (Exception e) {
+                log.error("Discarding unreadable cached metadata", e);
+                return Optional.empty();
+            }
+        }
+    }
+}
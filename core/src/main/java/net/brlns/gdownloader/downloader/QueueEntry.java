@@ -21,8 +21,6 @@ import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.Files;
 import java.util.ArrayList;
@@ -30,16 +28,16 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import javax.imageio.ImageIO;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -50,6 +48,10 @@ import net.brlns.gdownloader.downloader.enums.DownloadTypeEnum;
 import net.brlns.gdownloader.downloader.enums.DownloaderIdEnum;
 import net.brlns.gdownloader.downloader.enums.QueueCategoryEnum;
 import net.brlns.gdownloader.downloader.structs.MediaInfo;
+import net.brlns.gdownloader.persistence.ICheckpointSource;
+import net.brlns.gdownloader.persistence.PersistenceManager;
+import net.brlns.gdownloader.persistence.QueueEntryDelta;
+import net.brlns.gdownloader.persistence.ThumbnailStore;
 import net.brlns.gdownloader.persistence.entity.QueueEntryEntity;
 import net.brlns.gdownloader.settings.enums.AudioContainerEnum;
 import net.brlns.gdownloader.settings.enums.IContainerEnum;
@@ -69,7 +71,6 @@ import net.brlns.gdownloader.util.DirectoryUtils;
 import net.brlns.gdownloader.util.ImageUtils;
 import net.brlns.gdownloader.util.StringUtils;
 import net.brlns.gdownloader.util.URLUtils;
-import net.brlns.gdownloader.util.collection.ConcurrentLinkedHashSet;
 
 import static net.brlns.gdownloader.downloader.enums.DownloadStatusEnum.*;
 import static net.brlns.gdownloader.lang.Language.*;
@@ -84,8 +85,7 @@ import static net.brlns.gdownloader.util.StringUtils.nullOrEmpty;
 @Getter
 @EqualsAndHashCode
 @ToString
-@RequiredArgsConstructor
-public class QueueEntry {
+public final class QueueEntry implements ICheckpointSource {
 
     private final GDownloader main;
 
@@ -104,6 +104,10 @@ public class QueueEntry {
     @Setter
     private DownloaderIdEnum currentDownloader;
 
+    // The metadata cache source this entry's media info was stored under, if any
+    @Setter
+    private String metadataCacheSource;
+
     private DownloadTypeEnum currentDownloadType;
 
     @Setter
@@ -126,12 +130,32 @@ public class QueueEntry {
 
     private final List<String> lastCommandLine = new CopyOnWriteArrayList<>();
 
-    private final ConcurrentLinkedHashSet<String> errorLog = new ConcurrentLinkedHashSet<>();
-    private final ConcurrentLinkedHashSet<String> downloadLog = new ConcurrentLinkedHashSet<>();
+    private final DownloadLog errorLog;
+    private final DownloadLog downloadLog;
 
     @Setter
     private Process process;
 
+    @Getter(AccessLevel.NONE)
+    private final CheckpointTracker checkpointTracker;
+
+    public QueueEntry(GDownloader mainIn, MediaCard mediaCardIn, AbstractUrlFilter filterIn,
+        String originalUrlIn, String urlIn, long downloadIdIn, List<AbstractDownloader> downloadersIn) {
+        main = mainIn;
+        mediaCard = mediaCardIn;
+        filter = filterIn;
+        originalUrl = originalUrlIn;
+        url = urlIn;
+        downloadId = downloadIdIn;
+        downloaders = downloadersIn;
+
+        errorLog = new DownloadLog("error", DownloadLog.DEFAULT_TAIL_SIZE, downloadIdIn);
+        downloadLog = new DownloadLog("download", DownloadLog.DEFAULT_TAIL_SIZE, downloadIdIn);
+
+        // Only keeps the reference, nothing is read from the entry until the first checkpoint
+        checkpointTracker = new CheckpointTracker(this);
+    }
+
     public void openUrl() {
         main.openUrlInBrowser(originalUrl);
     }
@@ -233,9 +257,22 @@ public class QueueEntry {
 
         if (reason != CloseReasonEnum.SHUTDOWN) {
             cleanDirectories();
+
+            errorLog.delete();
+            downloadLog.delete();
+        } else {
+            flushLogs();
         }
     }
 
+    /**
+     * Writes out and releases the spilled part of both logs, called once a download attempt is over.
+     */
+    public void flushLogs() {
+        errorLog.flush();
+        downloadLog.flush();
+    }
+
     public void resetForRestart() {
         downloadStarted.set(false);
         cancelHook.set(false);
@@ -285,59 +322,80 @@ public class QueueEntry {
             Optional.ofNullable(displayName).ifPresent(mediaInfo::setHostDisplayName);
         }
 
-        String base64encoded = mediaInfo.getBase64EncodedThumbnail();
-
-        Optional<BufferedImage> optional = Optional.ofNullable(
-            ImageUtils.base64ToBufferedImage(base64encoded)
-        ).or(() -> {
-            return mediaInfo.supportedThumbnails()
-                .limit(5)
-                .map(this::tryLoadThumbnail)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .findFirst();
-        });
+        ThumbnailStore thumbnails = main.getPersistenceManager().getThumbnails();
 
-        optional.ifPresentOrElse(
-            img -> {
-                // Downscale thumbnails to save space and resources, we don't need the full resolution here.
-                BufferedImage downscaledImage = ImageUtils.downscaleImage(img, 240);
+        String thumbnailHash = mediaInfo.getThumbnailHash();
+        if (notNullOrEmpty(thumbnailHash)) {
+            // Already downscaled when stored, only read it once the card is on screen
+            mediaCard.setLazyThumbnail(
+                () -> thumbnails.load(thumbnailHash)
+                    .or(() -> loadRemoteThumbnail().join())
+                    .orElse(null),
+                mediaInfo.getDuration());
+            return;
+        }
 
-                if (base64encoded.isEmpty()) {
-                    mediaInfo.setBase64EncodedThumbnail(
-                        ImageUtils.bufferedImageToBase64(downscaledImage, "png"));
-                }
+        String base64encoded = mediaInfo.getBase64EncodedThumbnail();
+        if (notNullOrEmpty(base64encoded)) {
+            // Restored from an older session, move it out of the database once decoded
+            mediaCard.setLazyThumbnail(
+                () -> Optional.ofNullable(ImageUtils.base64ToBufferedImage(base64encoded))
+                    .map(img -> {
+                        String hash = thumbnails.store(img);
+                        if (hash != null) {
+                            updateThumbnailHash(hash);
+                        }
+
+                        return img;
+                    })
+                    .or(() -> loadRemoteThumbnail().join())
+                    .orElse(null),
+                mediaInfo.getDuration());
+            return;
+        }
 
-                mediaCard.setThumbnailAndDuration(downscaledImage, mediaInfo.getDuration());
-            },
+        // Fetched by the thumbnail pipeline, the metadata thread does not wait for it
+        loadRemoteThumbnail().thenAccept(result -> result.ifPresentOrElse(
+            img -> mediaCard.setThumbnailAndDuration(img, mediaInfo.getDuration()),
             () -> {
                 if (main.getConfig().isDebugMode()) {
                     log.error("Failed to load a valid thumbnail");
                 }
             }
-        );
+        ));
     }
 
-    private Optional<BufferedImage> tryLoadThumbnail(String url) {
-        try {
-            if (main.getConfig().isDebugMode()) {
-                log.debug("Trying to load thumbnail {}", url);
-            }
+    private CompletableFuture<Optional<BufferedImage>> loadRemoteThumbnail() {
+        List<String> candidates = mediaInfo.supportedThumbnails().toList();
 
-            BufferedImage img = ImageIO.read(new URI(url).toURL());
+        return main.getDownloadManager().getThumbnailPipeline().fetch(candidates)
+            .thenApply(result -> result.map(thumbnail -> {
+                if (thumbnail.getHash() != null) {
+                    updateThumbnailHash(thumbnail.getHash());
+                }
 
-            if (img != null) {
-                return Optional.of(img);
-            } else if (main.getConfig().isDebugMode()) {
-                log.error("ImageIO.read returned null for {}", url);
-            }
-        } catch (IOException | URISyntaxException e) {
-            if (main.getConfig().isDebugMode()) {
-                log.error("ImageIO.read exception {}", url, e);
-            }
+                return thumbnail.getImage();
+            }));
+    }
+
+    private void updateThumbnailHash(String hash) {
+        if (hash.equals(mediaInfo.getThumbnailHash())) {
+            return;
         }
 
-        return Optional.empty();
+        mediaInfo.setThumbnailHash(hash);
+        mediaInfo.setBase64EncodedThumbnail("");
+
+        // The media info was likely saved before the thumbnail was ready, save it again to keep the reference
+        PersistenceManager persistence = main.getPersistenceManager();
+        if (!cancelHook.get() && persistence.isInitialized()) {
+            persistence.getWriteQueue().saveMediaInfo(mediaInfo.toEntity(downloadId));
+        }
+
+        // Same for the cache entry, so a later hit reuses the stored thumbnail and it is not collected meanwhile
+        if (metadataCacheSource != null) {
+            main.getDownloadManager().getMetadataCache().updateThumbnailHash(metadataCacheSource, url, hash);
+        }
     }
 
     private String getTitle() {
@@ -448,6 +506,10 @@ public class QueueEntry {
                     mediaCard.setPercentage(100);
                     mediaCard.setProgressBarTextAndColors(status.getDisplayName(), new Color(0, 200, 83));
                 }
+                case ALREADY_DOWNLOADED -> {
+                    mediaCard.setPercentage(100);
+                    mediaCard.setProgressBarTextAndColors(status.getDisplayName(), new Color(0, 137, 123));
+                }
                 case NO_METHOD, FAILED -> {
                     mediaCard.setPercentage(100);
                     mediaCard.setProgressBarTextAndColors(status.getDisplayName(), Color.RED);
@@ -501,8 +563,7 @@ public class QueueEntry {
                 constructLogMenu(errorLog));
         }
 
-        errorLog.remove(output);
-        errorLog.add(output);// Re-add at the bottom
+        errorLog.add(output);
     }
 
     public void logOutput(String output) {
@@ -515,7 +576,6 @@ public class QueueEntry {
                 constructLogMenu(downloadLog));
         }
 
-        downloadLog.remove(output);
         downloadLog.add(output);
     }
 
@@ -681,8 +741,8 @@ public class QueueEntry {
         return false;
     }
 
-    private IMenuEntry constructLogMenu(ConcurrentLinkedHashSet<String> logEntries) {
-        return new MultiActionMenuEntry<>(() -> logEntries.snapshotAsList(), (entries) -> {
+    private IMenuEntry constructLogMenu(DownloadLog logEntries) {
+        return new MultiActionMenuEntry<>(() -> logEntries.readAll(), (entries) -> {
             List<String> finalText = new ArrayList<>();
 
             for (List<String> entry : entries) {
@@ -758,12 +818,26 @@ public class QueueEntry {
 
         entity.setLastCommandLine(new ArrayList<>(getLastCommandLine()));
 
-        entity.setErrorLog(getErrorLog().snapshotAsList());
-        entity.setDownloadLog(getDownloadLog().snapshotAsList());
-
         return entity;
     }
 
+    @Override
+    public QueueEntryDelta createDelta() {
+        return checkpointTracker.createDelta();
+    }
+
+    @Override
+    public void invalidateCheckpoint() {
+        checkpointTracker.invalidate();
+    }
+
+    /**
+     * Treats the current state as already persisted, so the next checkpoint only writes what changes from here.
+     */
+    public void markCheckpointed() {
+        checkpointTracker.markPersisted();
+    }
+
     public static QueueEntry fromEntity(QueueEntryEntity entity, MediaCard mediaCard, List<AbstractDownloader> downloaders) {
         QueueEntry queueEntry = new QueueEntry(
             GDownloader.getInstance(),
@@ -809,12 +883,6 @@ public class QueueEntry {
 
         queueEntry.setLastCommandLine(entity.getLastCommandLine());
 
-        queueEntry.getErrorLog().clear();
-        queueEntry.getErrorLog().addAll(entity.getErrorLog());
-
-        queueEntry.getDownloadLog().clear();
-        queueEntry.getDownloadLog().addAll(entity.getDownloadLog());
-
         return queueEntry;
     }
 }
@@ -18,14 +18,13 @@ package net.brlns.gdownloader.downloader;
 
 import jakarta.annotation.Nullable;
 import jakarta.annotation.PreDestroy;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import lombok.Getter;
@@ -43,6 +42,7 @@ import net.brlns.gdownloader.util.DirectoryUtils;
 import net.brlns.gdownloader.util.FileUtils;
 import net.brlns.gdownloader.util.FlagUtil;
 import net.brlns.gdownloader.util.Pair;
+import net.brlns.gdownloader.util.StreamingLineDecoder;
 
 import static net.brlns.gdownloader.downloader.enums.DownloadFlagsEnum.*;
 import static net.brlns.gdownloader.downloader.enums.DownloadTypeEnum.*;
@@ -94,17 +94,28 @@ public class SpotDLDownloader extends AbstractDownloader {
 
     @Override
     public void removeArchiveEntry(QueueEntry queueEntry) {
-        try {
-            for (DownloadTypeEnum downloadType : getArchivableTypes()) {
-                FileUtils.removeLineIfExists(
-                    getArchiveFile(downloadType),
-                    queueEntry.getUrl());
+        for (DownloadTypeEnum downloadType : getArchivableTypes()) {
+            DownloadArchive archive = getDownloadArchive(downloadType);
+            if (archive != null) {
+                archive.remove(getArchiveKey(queueEntry.getUrl()));
             }
-        } catch (Exception e) {
-            log.error("Failed to remove archive entry for video: {}", queueEntry.getUrl(), e);
         }
     }
 
+    @Override
+    protected boolean hasLineArchive() {
+        return true;
+    }
+
+    @Override
+    protected String getArchiveKey(String line) {
+        // Archived as track urls, ignore share parameters and trailing slashes
+        int queryIndex = line.indexOf('?');
+        String url = queryIndex != -1 ? line.substring(0, queryIndex) : line;
+
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
     @Override
     protected boolean canConsumeUrl(String inputUrl) {
         return isEnabled() && (inputUrl.contains("spotify.com") || inputUrl.contains("spotify.link"));
@@ -123,7 +134,7 @@ public class SpotDLDownloader extends AbstractDownloader {
 
                 PersistenceManager persistence = main.getPersistenceManager();
                 if (!queueEntry.getCancelHook().get() && persistence.isInitialized()) {
-                    persistence.getMediaInfos().addMediaInfo(mediaInfo.toEntity(queueEntry.getDownloadId()));
+                    persistence.getWriteQueue().saveMediaInfo(mediaInfo.toEntity(queueEntry.getDownloadId()));
                 }
 
                 return true;
@@ -326,38 +337,26 @@ public class SpotDLDownloader extends AbstractDownloader {
         Process process = processBuilder.start();
         entry.setProcess(process);
 
-        String lastOutput = "";
+        AtomicBoolean tainted = new AtomicBoolean();
 
-        boolean tainted = false;
+        try {
+            String lastOutput = readProcessOutput(entry, process, new IOutputLineClassifier() {
+                @Override
+                public void inspectLine(QueueEntry queueEntry, StreamingLineDecoder.Line line) {
+                    if (line.contains(" download error")) {
+                        tainted.set(true);
+                    }
 
-        try (
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while (manager.isRunning() && !entry.getCancelHook().get() && process.isAlive()) {
-                if (Thread.currentThread().isInterrupted()) {
-                    process.destroyForcibly();
-                    throw new InterruptedException("Download interrupted");
+                    if (line.contains("Go to the following URL: ")) {
+                        openAuthUrl(line);
+                    }
                 }
 
-                if (reader.ready()) {
-                    if ((line = reader.readLine()) != null) {
-                        lastOutput = line;
-
-                        processProgress(entry, lastOutput);
-
-                        if (lastOutput.contains(" download error")) {
-                            tainted = true;
-                        }
-                    }
-                } else {
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException e) {
-                        log.debug("Sleep interrupted, closing process");
-                        process.destroyForcibly();
-                    }
+                @Override
+                public void classify(QueueEntry queueEntry, String lastLine) {
+                    processProgress(queueEntry, lastLine);
                 }
-            }
+            });
 
             long stopped = System.currentTimeMillis() - start;
 
@@ -373,7 +372,7 @@ public class SpotDLDownloader extends AbstractDownloader {
                     log.debug("Download process took {}ms, exit code: {}", stopped, exitCode);
                 }
 
-                if (exitCode == 0 && tainted) {
+                if (exitCode == 0 && tainted.get()) {
                     // Under certain conditions, spotDL erroneously returns 0 even if all downloads have failed.
                     // e.g:
                     // AudioProviderError: YT-DLP download error - https://...
@@ -398,6 +397,19 @@ public class SpotDLDownloader extends AbstractDownloader {
         }
     }
 
+    private void openAuthUrl(StreamingLineDecoder.Line line) {
+        if (!FlagUtil.isSet(notificationFlags, NOTIFY_USER_AUTH)) {
+            int httpIndex = line.indexOf("https://");
+
+            if (httpIndex != -1) {
+                String url = line.subSequence(httpIndex, line.length()).toString().trim();
+                main.openUrlInBrowser(url);
+
+                FlagUtil.set(notificationFlags, NOTIFY_USER_AUTH);
+            }
+        }
+    }
+
     private void processProgress(QueueEntry entry, String lastOutput) {
         if (main.getConfig().isDebugMode()) {
             log.debug("[{}] - {}", entry.getDownloadId(), lastOutput);
@@ -407,19 +419,6 @@ public class SpotDLDownloader extends AbstractDownloader {
             return;
         }
 
-        if (lastOutput.contains("Go to the following URL: ")) {
-            if (!FlagUtil.isSet(notificationFlags, NOTIFY_USER_AUTH)) {
-                int httpIndex = lastOutput.indexOf("https://");
-
-                if (httpIndex != -1) {
-                    String url = lastOutput.substring(httpIndex).trim();
-                    main.openUrlInBrowser(url);
-
-                    FlagUtil.set(notificationFlags, NOTIFY_USER_AUTH);
-                }
-            }
-        }
-
         if (lastOutput.contains("Downloading")) {
             entry.getMediaCard().setPercentage(-1);
 
@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.downloader;
+
+import jakarta.annotation.Nullable;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.brlns.gdownloader.GDownloader;
+import net.brlns.gdownloader.persistence.ThumbnailStore;
+import net.brlns.gdownloader.util.FileUtils;
+import net.brlns.gdownloader.util.ImageUtils;
+import net.brlns.gdownloader.util.URLUtils;
+
+/**
+ * Fetches, decodes and downscales remote thumbnails off the metadata query path.
+ *
+ * Every fetch runs on its own virtual thread. Downloads take a permit for their host first and only
+ * then one of the global permits, so a large playlist neither opens dozens of connections to the same
+ * CDN nor keeps other hosts waiting behind it. Results are stored in the
+ * {@link ThumbnailStore} and indexed by source url on disk, so thumbnails seen in a previous
+ * session or shared by several entries are only downloaded once.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Slf4j
+public class ThumbnailPipeline {
+
+    private static final int MAX_CANDIDATES = 5;
+    private static final int MAX_CONCURRENT_FETCHES = 8;
+    private static final int MAX_FETCHES_PER_HOST = 2;
+
+    private static final int THUMBNAIL_WIDTH = 240;
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(15);
+
+    // Url index entries not used for this long are dropped, letting their thumbnails be collected
+    private static final long URL_INDEX_TTL_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private final GDownloader main;
+    private final ThumbnailStore store;
+    private final File urlIndexDirectory;
+
+    private final HttpClient httpClient;
+
+    private final ExecutorService fetchExecutor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("ThumbnailFetcher-", 0).factory());
+
+    private final Semaphore fetchPermits = new Semaphore(MAX_CONCURRENT_FETCHES);
+
+    // Only hosts with a fetch running or waiting have an entry, the last user removes it
+    private final Map<String, HostPermits> hostPermits = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<Optional<Result>>> inFlight = new ConcurrentHashMap<>();
+
+    public ThumbnailPipeline(GDownloader mainIn, ThumbnailStore storeIn) {
+        main = mainIn;
+        store = storeIn;
+        urlIndexDirectory = new File(GDownloader.getWorkDirectory(), "thumbnail_urls");
+
+        httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(10))
+            .version(HttpClient.Version.HTTP_2)
+            .build();
+    }
+
+    /**
+     * Resolves the first usable thumbnail out of the given candidate urls, in order of preference.
+     * Concurrent requests for the same candidates share a single fetch.
+     */
+    public CompletableFuture<Optional<Result>> fetch(List<String> candidateUrls) {
+        List<String> candidates = candidateUrls.stream()
+            .limit(MAX_CANDIDATES)
+            .toList();
+
+        if (candidates.isEmpty()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        String key = String.join("\n", candidates);
+
+        CompletableFuture<Optional<Result>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<Result>> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            fetchExecutor.execute(() -> {
+                try {
+                    future.complete(resolve(candidates));
+                } catch (Exception e) {
+                    log.error("Thumbnail pipeline failed for {}", candidates.get(0), e);
+                    future.complete(Optional.empty());
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            inFlight.remove(key, future);
+            future.complete(Optional.empty());
+        }
+
+        return future;
+    }
+
+    public void close() {
+        fetchExecutor.shutdownNow();
+    }
+
+    private Optional<Result> resolve(List<String> candidates) {
+        for (String url : candidates) {
+            Optional<Result> cached = loadIndexed(url);
+            if (cached.isPresent()) {
+                return cached;
+            }
+        }
+
+        for (String url : candidates) {
+            byte[] bytes = download(url);
+            if (bytes == null) {
+                continue;
+            }
+
+            try {
+                // Downscale thumbnails to save space and resources, we don't need the full resolution here.
+                BufferedImage downscaledImage = ImageUtils.decodeDownscaled(bytes, THUMBNAIL_WIDTH);
+                if (downscaledImage == null) {
+                    if (main.getConfig().isDebugMode()) {
+                        log.error("No image reader available for {}", url);
+                    }
+
+                    continue;
+                }
+
+                String hash = store.store(downscaledImage);
+                if (hash != null) {
+                    writeIndex(url, hash);
+                }
+
+                return Optional.of(new Result(hash, downscaledImage));
+            } catch (IOException e) {
+                if (main.getConfig().isDebugMode()) {
+                    log.error("Cannot decode thumbnail {}", url, e);
+                }
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    @Nullable
+    private byte[] download(String url) {
+        String host = URLUtils.getHostName(url);
+        if (host == null) {
+            return null;
+        }
+
+        HostPermits permits = hostPermits.compute(host, (h, current) -> {
+            HostPermits result = current != null ? current : new HostPermits();
+            result.users++;
+
+            return result;
+        });
+
+        try {
+            // Host first, so fetches queued behind a busy host do not hold global permits
+            permits.semaphore.acquire();
+            try {
+                fetchPermits.acquire();
+            } catch (InterruptedException e) {
+                permits.semaphore.release();
+                throw e;
+            }
+
+            try {
+                if (main.getConfig().isDebugMode()) {
+                    log.debug("Trying to load thumbnail {}", url);
+                }
+
+                HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("User-Agent", URLUtils.GLOBAL_USER_AGENT)
+                    .GET()
+                    .build();
+
+                HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() == 200) {
+                    return response.body();
+                }
+
+                if (main.getConfig().isDebugMode()) {
+                    log.error("Thumbnail request for {} returned status code {}", url, response.statusCode());
+                }
+            } finally {
+                fetchPermits.release();
+                permits.semaphore.release();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            if (main.getConfig().isDebugMode()) {
+                log.error("Cannot download thumbnail {}", url, e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            hostPermits.computeIfPresent(host, (h, current) -> --current.users == 0 ? null : current);
+        }
+
+        return null;
+    }
+
+    private Optional<Result> loadIndexed(String url) {
+        Path path = getIndexPath(url);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+
+        try {
+            String hash = Files.readString(path).trim();
+
+            Optional<BufferedImage> image = store.load(hash);
+            if (image.isPresent()) {
+                Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+
+                return Optional.of(new Result(hash, image.get()));
+            }
+
+            // The thumbnail itself is gone, forget about it
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.error("Cannot read thumbnail index entry {}", path, e);
+        }
+
+        return Optional.empty();
+    }
+
+    private void writeIndex(String url, String hash) {
+        Path path = getIndexPath(url);
+
+        try {
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, hash);
+        } catch (IOException e) {
+            log.error("Cannot write thumbnail index entry {}", path, e);
+        }
+    }
+
+    /**
+     * Drops expired url index entries.
+     *
+     * @return the thumbnail hashes still referenced by the index.
+     */
+    public Set<String> collectGarbage() {
+        Set<String> referencedHashes = new HashSet<>();
+        if (!urlIndexDirectory.exists()) {
+            return referencedHashes;
+        }
+
+        long cutoff = System.currentTimeMillis() - URL_INDEX_TTL_MILLIS;
+
+        try (Stream<Path> stream = Files.walk(urlIndexDirectory.toPath())) {
+            Iterator<Path> iterator = stream.filter(Files::isRegularFile).iterator();
+
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+
+                if (Files.getLastModifiedTime(path).toMillis() < cutoff) {
+                    Files.deleteIfExists(path);
+                } else {
+                    referencedHashes.add(Files.readString(path).trim());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Thumbnail index garbage collection failed", e);
+        }
+
+        return referencedHashes;
+    }
+
+    private Path getIndexPath(String url) {
+        String hash = FileUtils.sha256Hex(url);
+
+        return urlIndexDirectory.toPath()
+            .resolve(hash.substring(0, 2))
+            .resolve(hash);
+    }
+
+    private static final class HostPermits {
+
+        private final Semaphore semaphore = new Semaphore(MAX_FETCHES_PER_HOST);
+
+        // Guarded by the compute calls on hostPermits
+        private int users;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+
+        // Null if the thumbnail could not be stored
+        @Nullable
+        private final String hash;
+
+        private final BufferedImage image;
+    }
+}
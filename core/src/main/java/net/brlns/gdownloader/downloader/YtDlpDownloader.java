@@ -16,18 +16,22 @@
  */
 package net.brlns.gdownloader.downloader;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.annotation.Nullable;
 import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.Setter;
@@ -38,6 +42,7 @@ import net.brlns.gdownloader.downloader.enums.DownloadTypeEnum;
 import net.brlns.gdownloader.downloader.enums.DownloaderIdEnum;
 import net.brlns.gdownloader.downloader.structs.DownloadResult;
 import net.brlns.gdownloader.downloader.structs.MediaInfo;
+import net.brlns.gdownloader.downloader.structs.PlaylistExpansionResult;
 import net.brlns.gdownloader.persistence.PersistenceManager;
 import net.brlns.gdownloader.settings.QualitySettings;
 import net.brlns.gdownloader.settings.enums.AudioBitrateEnum;
@@ -45,12 +50,16 @@ import net.brlns.gdownloader.settings.filters.AbstractUrlFilter;
 import net.brlns.gdownloader.util.DirectoryUtils;
 import net.brlns.gdownloader.util.FileUtils;
 import net.brlns.gdownloader.util.Pair;
+import net.brlns.gdownloader.util.ProjectedJsonReader;
+import net.brlns.gdownloader.util.StreamingLineDecoder;
 
 import static net.brlns.gdownloader.downloader.enums.DownloadFlagsEnum.*;
 import static net.brlns.gdownloader.downloader.enums.DownloadTypeEnum.*;
 import static net.brlns.gdownloader.lang.Language.*;
 import static net.brlns.gdownloader.util.FileUtils.isFileType;
 import static net.brlns.gdownloader.util.FileUtils.relativize;
+import static net.brlns.gdownloader.util.StringUtils.notNullOrEmpty;
+import static net.brlns.gdownloader.util.StringUtils.nullOrEmpty;
 
 /**
  * @author Gabriel / hstr0100 / vertx010
@@ -58,6 +67,16 @@ import static net.brlns.gdownloader.util.FileUtils.relativize;
 @Slf4j
 public class YtDlpDownloader extends AbstractDownloader {
 
+    // View counts and the like go stale, but titles and thumbnails rarely change
+    private static final Duration METADATA_CACHE_TTL = Duration.ofHours(6);
+
+    // Items of a large playlist can sit in the queue for a while before they are looked at
+    private static final Duration PLAYLIST_ITEM_CACHE_TTL = Duration.ofDays(1);
+    private static final int PLAYLIST_BATCH_SIZE = 100;
+
+    private static final ProjectedJsonReader<MediaInfo> MEDIA_INFO_READER
+        = new ProjectedJsonReader<>(GDownloader.OBJECT_MAPPER, MediaInfo.class);
+
     @Getter
     @Setter
     private Optional<File> executablePath = Optional.empty();
@@ -97,17 +116,198 @@ public class YtDlpDownloader extends AbstractDownloader {
             return;
         }
 
+        for (DownloadTypeEnum downloadType : getArchivableTypes()) {
+            DownloadArchive archive = getDownloadArchive(downloadType);
+            if (archive != null) {
+                archive.remove(queueEntry.getMediaInfo().getId());
+            }
+        }
+    }
+
+    @Override
+    public boolean isArchived(QueueEntry queueEntry) {
+        MediaInfo info = queueEntry.getMediaInfo();
+        if (info == null
+            // Only the first item of a playlist is queried, the rest of it is unknown at this point
+            || notNullOrEmpty(info.getPlaylistTitle())) {
+            return false;
+        }
+
+        return isArchived(info.getExtractorKey(), info.getId());
+    }
+
+    private boolean isArchived(@Nullable String extractorKey, @Nullable String id) {
+        if (!main.getConfig().isRecordToDownloadArchive() || nullOrEmpty(id) || nullOrEmpty(extractorKey)) {
+            return false;
+        }
+
+        boolean downloadVideo = main.getConfig().isDownloadVideo();
+        boolean downloadAudio = main.getConfig().isDownloadAudio();
+        if (!downloadVideo && !downloadAudio) {
+            return false;
+        }
+
+        // Same format yt-dlp writes to --download-archive
+        String line = extractorKey.toLowerCase() + " " + id;
+
+        for (DownloadTypeEnum downloadType : getArchivableTypes()) {
+            if (downloadType == VIDEO && !downloadVideo || downloadType == AUDIO && !downloadAudio) {
+                continue;
+            }
+
+            DownloadArchive archive = getDownloadArchive(downloadType);
+            if (archive == null || !archive.containsLine(line)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean canExpandPlaylist(QueueEntry queueEntry) {
+        MediaInfo info = queueEntry.getMediaInfo();
+
+        return main.getConfig().isExpandPlaylists() && isEnabled()
+            && info != null && notNullOrEmpty(info.getPlaylistTitle());
+    }
+
+    @Override
+    public PlaylistExpansionResult expandPlaylist(QueueEntry queueEntry, Consumer<List<String>> batchConsumer) throws Exception {
+        List<String> arguments = new ArrayList<>(List.of(
+            executablePath.get().getAbsolutePath(),
+            "--flat-playlist",
+            "--dump-json",
+            queueEntry.getUrl()
+        ));
+
+        addCookieArguments(arguments);
+
+        ProcessBuilder processBuilder = new ProcessBuilder(arguments);
+        // Warnings would only get in the way of the json lines
+        processBuilder.redirectError(ProcessBuilder.Redirect.DISCARD);
+        Process process = processBuilder.start();
+        queueEntry.setProcess(process);
+
+        int listed = 0;
+        int archived = 0;
+
+        String cacheSource = getDownloaderId().name();
+        List<String> batch = new ArrayList<>();
+
+        // yt-dlp prints one line per item as it walks the playlist pages, hand them out a page at a time
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (queueEntry.getCancelHook().get()) {
+                    process.destroyForcibly();
+                    break;
+                }
+
+                if (line.startsWith("{")) {
+                    JsonNode item;
+                    try {
+                        item = GDownloader.OBJECT_MAPPER.readTree(line);
+                    } catch (JsonProcessingException e) {
+                        log.error("Malformed playlist item for {}: {}", queueEntry.getUrl(), e.getMessage());
+                        continue;
+                    }
+
+                    String itemUrl = getPlaylistItemUrl(item);
+                    if (itemUrl != null) {
+                        listed++;
+
+                        if (isArchived(item.path("ie_key").asText(null), item.path("id").asText(null))) {
+                            archived++;
+                        } else {
+                            // The flat line already has what the card needs, spare each item its own metadata query
+                            MediaInfo itemInfo = getPlaylistItemInfo(item);
+                            if (itemInfo != null) {
+                                manager.getMetadataCache().put(cacheSource, itemUrl, itemInfo, PLAYLIST_ITEM_CACHE_TTL);
+                            }
+
+                            batch.add(itemUrl);
+                        }
+                    }
+                }
+
+                if (!batch.isEmpty() && (batch.size() >= PLAYLIST_BATCH_SIZE || !reader.ready())) {
+                    batchConsumer.accept(List.copyOf(batch));
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty() && !queueEntry.getCancelHook().get()) {
+            batchConsumer.accept(List.copyOf(batch));
+        }
+
+        int exitCode = process.waitFor();
+
+        log.info("Listed {} items of {}, {} already archived, exit code: {}",
+            listed, queueEntry.getUrl(), archived, exitCode);
+
+        // A failing page or a rate limit ends the listing early, with whatever was printed so far
+        return new PlaylistExpansionResult(listed, exitCode == 0 && !queueEntry.getCancelHook().get());
+    }
+
+    /**
+     * Reads what a flat playlist line knows about its item, as if the item had been queried on its own.
+     */
+    @Nullable
+    private static MediaInfo getPlaylistItemInfo(JsonNode item) {
+        String ieKey = item.path("ie_key").asText("");
+        if (ieKey.isEmpty()) {
+            return null;
+        }
+
         try {
-            for (DownloadTypeEnum downloadType : getArchivableTypes()) {
-                FileUtils.removeLineIfExists(
-                    getArchiveFile(downloadType),
-                    queueEntry.getMediaInfo().getId());
+            MediaInfo info = GDownloader.OBJECT_MAPPER.treeToValue(item, MediaInfo.class);
+            if (!info.isValid()) {
+                return null;
             }
-        } catch (Exception e) {
-            log.error("Failed to remove archive entry for video: {}", queueEntry.getUrl(), e);
+
+            // Listed by the playlist extractor, but queried and downloaded by the item's own,
+            // and no longer part of a playlist as far as the item entry is concerned
+            info.setExtractor(ieKey.toLowerCase());
+            info.setExtractorKey(ieKey);
+            info.setPlaylistTitle("");
+
+            return info;
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.error("Cannot read playlist item metadata: {}", e.getMessage());
+            return null;
         }
     }
 
+    @Nullable
+    private static String getPlaylistItemUrl(JsonNode item) {
+        String webpageUrl = item.path("webpage_url").asText("");
+        if (webpageUrl.startsWith("http")) {
+            return webpageUrl;
+        }
+
+        // Flat entries usually only carry the url of the item page
+        String url = item.path("url").asText("");
+        if (url.startsWith("http")) {
+            return url;
+        }
+
+        return null;
+    }
+
+    @Override
+    protected boolean hasLineArchive() {
+        return true;
+    }
+
+    @Override
+    protected String getArchiveKey(String line) {
+        // Lines are written as "<extractor> <id>"
+        return line.substring(line.lastIndexOf(' ') + 1);
+    }
+
     @Override
     protected boolean canConsumeUrl(String inputUrl) {
         return isEnabled()
@@ -128,6 +328,15 @@ public class YtDlpDownloader extends AbstractDownloader {
                 return false;
             }
 
+            String cacheSource = getDownloaderId().name();
+            queueEntry.setMetadataCacheSource(cacheSource);
+
+            Optional<MediaInfo> cached = manager.getMetadataCache().get(cacheSource, queueEntry.getUrl());
+            if (cached.isPresent()) {
+                applyMediaInfo(queueEntry, cached.get());
+                return true;
+            }
+
             long start = System.currentTimeMillis();
 
             List<String> arguments = new ArrayList<>();
@@ -141,23 +350,20 @@ public class YtDlpDownloader extends AbstractDownloader {
                 queueEntry.getUrl()
             ));
 
-            if (main.getConfig().isReadCookiesFromBrowser()) {
-                arguments.addAll(List.of(
-                    "--cookies-from-browser",
-                    main.getBrowserForCookies().getName()
-                ));
-            } else {
-                File cookieJar = getCookieJarFile();
-                if (cookieJar != null) {
-                    arguments.addAll(List.of(
-                        "--cookies",
-                        cookieJar.getAbsolutePath()
-                    ));
-                }
-            }
+            addCookieArguments(arguments);
+
+            ProcessBuilder processBuilder = new ProcessBuilder(arguments);
+            // Warnings would only get in the way of the json
+            processBuilder.redirectError(ProcessBuilder.Redirect.DISCARD);
+            Process process = processBuilder.start();
 
-            List<String> list = GDownloader.readOutput(
-                arguments.stream().toArray(String[]::new));
+            // Bound straight from stdout, formats and captions are skipped without ever becoming a String
+            Optional<MediaInfo> infoOptional = MEDIA_INFO_READER.readFirst(process.getInputStream());
+
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                log.warn("Failed command for {}", arguments);
+            }
 
             if (main.getConfig().isDebugMode()) {
                 long what = System.currentTimeMillis() - start;
@@ -168,19 +374,13 @@ public class YtDlpDownloader extends AbstractDownloader {
                     what, String.format("%.12f", earth));
             }
 
-            for (String line : list) {
-                if (!line.startsWith("{")) {
-                    continue;
-                }
-
-                MediaInfo info = GDownloader.OBJECT_MAPPER.readValue(line, MediaInfo.class);
+            if (infoOptional.isPresent()) {
+                MediaInfo info = infoOptional.get();
 
-                queueEntry.setMediaInfo(info);
+                applyMediaInfo(queueEntry, info);
 
-                PersistenceManager persistence = main.getPersistenceManager();
-                if (!queueEntry.getCancelHook().get() && persistence.isInitialized()) {
-                    persistence.getMediaInfos().addMediaInfo(info.toEntity(queueEntry.getDownloadId()));
-                }
+                // The thumbnail is still being fetched here, QueueEntry adds its hash to the cache entry once stored
+                manager.getMetadataCache().put(cacheSource, queueEntry.getUrl(), info, METADATA_CACHE_TTL);
 
                 return true;
             }
@@ -191,6 +391,32 @@ public class YtDlpDownloader extends AbstractDownloader {
         return false;
     }
 
+    private void addCookieArguments(List<String> arguments) {
+        if (main.getConfig().isReadCookiesFromBrowser()) {
+            arguments.addAll(List.of(
+                "--cookies-from-browser",
+                main.getBrowserForCookies().getName()
+            ));
+        } else {
+            File cookieJar = getCookieJarFile();
+            if (cookieJar != null) {
+                arguments.addAll(List.of(
+                    "--cookies",
+                    cookieJar.getAbsolutePath()
+                ));
+            }
+        }
+    }
+
+    private void applyMediaInfo(QueueEntry queueEntry, MediaInfo info) {
+        queueEntry.setMediaInfo(info);
+
+        PersistenceManager persistence = main.getPersistenceManager();
+        if (!queueEntry.getCancelHook().get() && persistence.isInitialized()) {
+            persistence.getWriteQueue().saveMediaInfo(info.toEntity(queueEntry.getDownloadId()));
+        }
+    }
+
     @Override
     protected DownloadResult tryDownload(QueueEntry entry) throws Exception {
         AbstractUrlFilter filter = entry.getFilter();
@@ -380,48 +606,20 @@ public class YtDlpDownloader extends AbstractDownloader {
         Process process = processBuilder.start();
         entry.setProcess(process);
 
-        String lastOutput = "";
-
-        try (
-            ReadableByteChannel stdInput = Channels.newChannel(process.getInputStream())) {
-            ByteBuffer buffer = ByteBuffer.allocate(4096);
-            StringBuilder output = new StringBuilder();
-            char prevChar = '\0';
-
-            while (manager.isRunning() && !entry.getCancelHook().get() && process.isAlive()) {
-                if (Thread.currentThread().isInterrupted()) {
-                    log.debug("Process is closing");
-                    process.destroyForcibly();
-                    throw new InterruptedException("Download interrupted");
-                }
-
-                buffer.clear();
-                int bytesRead = stdInput.read(buffer);
-                if (bytesRead > 0) {
-                    buffer.flip();
-
-                    while (buffer.hasRemaining()) {
-                        char ch = (char)buffer.get();
-                        output.append(ch);
-
-                        if (ch == '\n' || (ch == '\r' && prevChar != '\n')) {
-                            lastOutput = output.toString().replace("\n", "");
-                            output.setLength(0);
-                        }
-
-                        prevChar = ch;
+        try {
+            String lastOutput = readProcessOutput(entry, process, new IOutputLineClassifier() {
+                @Override
+                public void inspectLine(QueueEntry queueEntry, StreamingLineDecoder.Line line) {
+                    if (line.contains("Downloading webpage")) {// Reset when looping through a playlist
+                        queueEntry.getDownloadStarted().set(false);
                     }
-
-                    processProgress(entry, lastOutput);
                 }
 
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    log.debug("Sleep interrupted, closing process");
-                    process.destroyForcibly();
+                @Override
+                public void classify(QueueEntry queueEntry, String lastLine) {
+                    processProgress(queueEntry, lastLine);
                 }
-            }
+            });
 
             long stopped = System.currentTimeMillis() - start;
 
@@ -451,23 +649,19 @@ public class YtDlpDownloader extends AbstractDownloader {
     }
 
     private void processProgress(QueueEntry entry, String lastOutput) {
-        double lastPercentage = entry.getMediaCard().getPercentage();
-
         if (lastOutput.contains("Sleeping") && lastOutput.contains("...")) {
             entry.updateStatus(DownloadStatusEnum.WAITING, lastOutput);
             return;
         }
 
         if (lastOutput.contains("[download]") && !lastOutput.contains("Destination:")) {
-            String[] parts = lastOutput.split("\\s+");
-            for (String part : parts) {
-                if (part.endsWith("%")) {
-                    double percent = Double.parseDouble(part.replace("%", ""));
-                    if (percent > lastPercentage || percent < 5
-                        || Math.abs(percent - lastPercentage) > 10) {
-                        entry.getMediaCard().setPercentage(percent);
-                        lastPercentage = percent;
-                    }
+            double percent = parsePercentage(lastOutput);
+            if (percent >= 0) {
+                double lastPercentage = entry.getMediaCard().getPercentage();
+
+                if (percent > lastPercentage || percent < 5
+                    || Math.abs(percent - lastPercentage) > 10) {
+                    entry.getMediaCard().setPercentage(percent);
                 }
             }
 
@@ -482,10 +676,6 @@ public class YtDlpDownloader extends AbstractDownloader {
 
                 entry.updateStatus(DownloadStatusEnum.DOWNLOADING, lastOutput, false);
             } else {
-                if (lastOutput.contains("Downloading webpage")) {// Reset when looping through a playlist
-                    entry.getDownloadStarted().set(false);
-                }
-
                 if (entry.getDownloadStarted().get()) {
                     entry.updateStatus(DownloadStatusEnum.PROCESSING, lastOutput);
                 } else {
@@ -495,6 +685,42 @@ public class YtDlpDownloader extends AbstractDownloader {
         }
     }
 
+    /**
+     * Extracts the last whitespace-delimited token ending in '%' from a progress line.
+     *
+     * @return the parsed percentage, or -1 if none was found.
+     */
+    private static double parsePercentage(CharSequence line) {
+        double result = -1;
+
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(i) != '%') {
+                continue;
+            }
+
+            boolean endOfToken = i + 1 == length || Character.isWhitespace(line.charAt(i + 1));
+            if (!endOfToken) {
+                continue;
+            }
+
+            int start = i;
+            while (start > 0 && !Character.isWhitespace(line.charAt(start - 1))) {
+                start--;
+            }
+
+            if (start < i) {
+                try {
+                    result = Double.parseDouble(line.subSequence(start, i).toString());
+                } catch (NumberFormatException e) {
+                    // Not a percentage, e.g. part of a title
+                }
+            }
+        }
+
+        return result;
+    }
+
     @Override
     @PreDestroy
     public void close() {
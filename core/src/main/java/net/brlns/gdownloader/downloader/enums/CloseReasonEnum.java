@@ -22,5 +22,6 @@ package net.brlns.gdownloader.downloader.enums;
 public enum CloseReasonEnum {
     MANUAL,
     SUCCEEDED,
+    DUPLICATE,
     SHUTDOWN
 }
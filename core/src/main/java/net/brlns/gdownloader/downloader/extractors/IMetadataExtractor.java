@@ -16,6 +16,7 @@
  */
 package net.brlns.gdownloader.downloader.extractors;
 
+import java.time.Duration;
 import java.util.Optional;
 import net.brlns.gdownloader.downloader.structs.MediaInfo;
 
@@ -28,4 +29,11 @@ public interface IMetadataExtractor {
 
     Optional<MediaInfo> fetchMetadata(String urlIn) throws Exception;
 
+    /**
+     * How long fetched metadata may be served from the cache.
+     */
+    default Duration getCacheTtl() {
+        return Duration.ofDays(1);
+    }
+
 }
@@ -22,6 +22,7 @@ import java.util.Optional;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
+import net.brlns.gdownloader.downloader.MetadataCache;
 import net.brlns.gdownloader.downloader.structs.MediaInfo;
 
 /**
@@ -36,7 +37,11 @@ public final class MetadataManager {
     @Setter
     private IMetadataExtractor defaultExtractor;
 
-    public MetadataManager() {
+    private final MetadataCache cache;
+
+    public MetadataManager(MetadataCache cacheIn) {
+        cache = cacheIn;
+
         registerExtractor(new SpotifyMetadataExtractor());
 
         defaultExtractor = new OEmbedMetadataExtractor();
@@ -63,6 +68,18 @@ public final class MetadataManager {
             throw new IllegalStateException("No extractor found for URL and no default extractor set");
         }
 
-        return extractorToUse.fetchMetadata(url);
+        String source = extractorToUse.getClass().getSimpleName();
+
+        Optional<MediaInfo> cached = cache.get(source, url);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        Optional<MediaInfo> mediaInfo = extractorToUse.fetchMetadata(url);
+        if (mediaInfo.isPresent()) {
+            cache.put(source, url, mediaInfo.get(), extractorToUse.getCacheTtl());
+        }
+
+        return mediaInfo;
     }
 }
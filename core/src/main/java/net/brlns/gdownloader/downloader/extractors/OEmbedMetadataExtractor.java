@@ -8,7 +8,6 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.Optional;
-import java.util.regex.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,7 +15,6 @@ import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.brlns.gdownloader.GDownloader;
 import net.brlns.gdownloader.downloader.extractors.OEmbedProviders.Endpoint;
-import net.brlns.gdownloader.downloader.extractors.OEmbedProviders.Provider;
 import net.brlns.gdownloader.downloader.structs.MediaInfo;
 import net.brlns.gdownloader.util.URLUtils;
 
@@ -31,24 +29,8 @@ public class OEmbedMetadataExtractor implements IMetadataExtractor {
     private static final OEmbedProviders oembedProviders = new OEmbedProviders();
 
     protected Optional<OEmbedDTO> getOEmbedDTO(String url) {
-        for (Provider provider : oembedProviders.getProviders()) {
-            for (Endpoint endpoint : provider.getEndpoints()) {
-                for (String scheme : endpoint.getSchemes()) {
-                    String regex = schemeToRegex(scheme);
-                    if (Pattern.compile(regex).matcher(url).matches()) {
-                        return fetchOEmbedDTO(url, endpoint, provider.getProviderName());
-                    }
-                }
-            }
-        }
-
-        return Optional.empty();
-    }
-
-    private String schemeToRegex(String scheme) {
-        return "^" + Pattern.quote(scheme)
-            .replace("*", "\\E.*\\Q")
-            .replace("\\Q\\E", "") + "$";
+        return oembedProviders.getMatcher().match(url)
+            .flatMap(match -> fetchOEmbedDTO(url, match.getEndpoint(), match.getProviderName()));
     }
 
     private Optional<OEmbedDTO> fetchOEmbedDTO(String url, Endpoint endpoint, String providerName) {
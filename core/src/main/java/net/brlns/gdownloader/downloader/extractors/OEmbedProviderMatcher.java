@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.downloader.extractors;
+
+import jakarta.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.brlns.gdownloader.downloader.extractors.OEmbedProviders.Endpoint;
+import net.brlns.gdownloader.downloader.extractors.OEmbedProviders.Provider;
+
+/**
+ * Matches urls against the url schemes of every oEmbed provider.
+ *
+ * Schemes are compiled once and indexed by the host they apply to, so a lookup only tests the handful of
+ * schemes registered for the url's host and its parent domains, plus the rare schemes that cannot be indexed.
+ * When several schemes match, the one listed first in providers.json wins, same as a linear scan would.
+ *
+ * Instances are immutable, a new one is built whenever the provider list is refreshed.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Slf4j
+public final class OEmbedProviderMatcher {
+
+    public static final OEmbedProviderMatcher EMPTY = new OEmbedProviderMatcher(Collections.emptyList());
+
+    // Schemes for an exact host, like http://www.flickr.com/photos/*
+    private final Map<String, List<CompiledScheme>> byHost = new HashMap<>();
+    // Schemes for any subdomain of a host, like https://*.youtube.com/watch*
+    private final Map<String, List<CompiledScheme>> bySuffix = new HashMap<>();
+    // Anything with a wildcard in an unusual position in the host, tested against every url
+    private final List<CompiledScheme> unindexed = new ArrayList<>();
+
+    @Getter
+    private final int schemeCount;
+
+    public OEmbedProviderMatcher(List<Provider> providers) {
+        int order = 0;
+
+        for (Provider provider : providers) {
+            for (Endpoint endpoint : provider.getEndpoints()) {
+                for (String scheme : endpoint.getSchemes()) {
+                    Pattern pattern;
+                    try {
+                        pattern = Pattern.compile(schemeToRegex(scheme));
+                    } catch (PatternSyntaxException e) {
+                        log.warn("Ignoring invalid oEmbed scheme {}", scheme);
+                        continue;
+                    }
+
+                    CompiledScheme compiled = new CompiledScheme(order++, pattern, endpoint, provider.getProviderName());
+
+                    String host = extractHost(scheme);
+                    if (host == null || host.isEmpty()) {
+                        unindexed.add(compiled);
+                    } else if (host.startsWith("*.") && host.indexOf('*', 1) == -1) {
+                        bySuffix.computeIfAbsent(host.substring(2), k -> new ArrayList<>()).add(compiled);
+                    } else if (host.indexOf('*') == -1) {
+                        byHost.computeIfAbsent(host, k -> new ArrayList<>()).add(compiled);
+                    } else {
+                        unindexed.add(compiled);
+                    }
+                }
+            }
+        }
+
+        schemeCount = order;
+    }
+
+    public Optional<Match> match(String url) {
+        CompiledScheme best = null;
+
+        String host = extractHost(url);
+        if (host != null && !host.isEmpty()) {
+            best = firstMatch(byHost.get(host), url, best);
+
+            // A *.example.com scheme also covers deeper subdomains, the pattern itself has the final say
+            int dot = host.indexOf('.');
+            while (dot != -1) {
+                best = firstMatch(bySuffix.get(host.substring(dot + 1)), url, best);
+                dot = host.indexOf('.', dot + 1);
+            }
+        }
+
+        best = firstMatch(unindexed, url, best);
+
+        return best != null
+            ? Optional.of(new Match(best.endpoint, best.providerName))
+            : Optional.empty();
+    }
+
+    @Nullable
+    private static CompiledScheme firstMatch(@Nullable List<CompiledScheme> candidates, String url, @Nullable CompiledScheme best) {
+        if (candidates == null) {
+            return best;
+        }
+
+        for (CompiledScheme candidate : candidates) {
+            if (best != null && candidate.order > best.order) {
+                // Candidates are in providers.json order, nothing after this can win
+                break;
+            }
+
+            if (candidate.pattern.matcher(url).matches()) {
+                return candidate;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Returns the lowercase host of a url or scheme, without port or credentials,
+     * or null if there is no scheme separator.
+     */
+    @Nullable
+    static String extractHost(String url) {
+        int start = url.indexOf("://");
+        if (start == -1) {
+            return null;
+        }
+
+        start += 3;
+
+        int end = start;
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+
+            end++;
+        }
+
+        String authority = url.substring(start, end);
+
+        int at = authority.lastIndexOf('@');
+        if (at != -1) {
+            authority = authority.substring(at + 1);
+        }
+
+        int colon = authority.indexOf(':');
+        if (colon != -1) {
+            authority = authority.substring(0, colon);
+        }
+
+        return authority.toLowerCase();
+    }
+
+    static String schemeToRegex(String scheme) {
+        return "^" + Pattern.quote(scheme)
+            .replace("*", "\\E.*\\Q")
+            .replace("\\Q\\E", "") + "$";
+    }
+
+    @Getter
+    public static final class Match {
+
+        private final Endpoint endpoint;
+        private final String providerName;
+
+        private Match(Endpoint endpointIn, String providerNameIn) {
+            endpoint = endpointIn;
+            providerName = providerNameIn;
+        }
+    }
+
+    private static final class CompiledScheme {
+
+        private final int order;
+        private final Pattern pattern;
+        private final Endpoint endpoint;
+        private final String providerName;
+
+        private CompiledScheme(int orderIn, Pattern patternIn, Endpoint endpointIn, String providerNameIn) {
+            order = orderIn;
+            pattern = patternIn;
+            endpoint = endpointIn;
+            providerName = providerNameIn;
+        }
+    }
+}
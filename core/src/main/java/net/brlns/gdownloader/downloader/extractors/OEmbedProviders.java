@@ -18,24 +18,21 @@ package net.brlns.gdownloader.downloader.extractors;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import java.io.*;
-import java.net.URI;
+import java.io.IOException;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.brlns.gdownloader.GDownloader;
-import net.brlns.gdownloader.util.URLUtils;
+import net.brlns.gdownloader.util.HttpResponseCache;
 
 /**
  * @author Gabriel / hstr0100 / vertx010
@@ -44,6 +41,7 @@ import net.brlns.gdownloader.util.URLUtils;
 public class OEmbedProviders {
 
     private static final String PROVIDERS_URL = "https://oembed.com/providers.json";
+    private static final Duration PROVIDERS_MAX_AGE = Duration.ofDays(1);
 
     @Getter
     private final HttpClient httpClient;
@@ -51,6 +49,9 @@ public class OEmbedProviders {
     @Getter
     private List<Provider> providers = new ArrayList<>();
 
+    @Getter
+    private volatile OEmbedProviderMatcher matcher = OEmbedProviderMatcher.EMPTY;
+
     public OEmbedProviders() {
         httpClient = HttpClient.newBuilder()
             .followRedirects(HttpClient.Redirect.ALWAYS)
@@ -63,76 +64,49 @@ public class OEmbedProviders {
 
     private void loadProviders() {
         GDownloader.GLOBAL_THREAD_POOL.submitWithPriority(() -> {
-            try {
-                HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(PROVIDERS_URL))
-                    .timeout(Duration.ofSeconds(10))
-                    .header("User-Agent", URLUtils.GLOBAL_USER_AGENT)
-                    .header("Accept", "application/json")
-                    .GET()
-                    .build();
-
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-                if (response.statusCode() == 200) {
-                    providers = GDownloader.OBJECT_MAPPER.readValue(response.body(),
-                        GDownloader.OBJECT_MAPPER.getTypeFactory().constructCollectionType(
-                            List.class, Provider.class));
-
-                    saveProvidersToCache(response.body());
-
-                    log.info("Loaded {} oEmbed providers", providers.size());
-                    return;
-                } else {
-                    log.error("Failed to load oEmbed providers. Status code: {}", response.statusCode());
-                }
-            } catch (IOException | InterruptedException e) {
-                log.error("Error loading oEmbed providers", e);
+            HttpResponseCache cache = HttpResponseCache.getShared();
+
+            // Providers are usable right away, even offline, while the copy is revalidated
+            Optional<String> cachedJson = cache.peek(PROVIDERS_URL);
+            cachedJson.ifPresent(json -> parseProviders(json, "cache"));
+
+            Optional<String> json = cache.get(PROVIDERS_URL, PROVIDERS_MAX_AGE, "Accept", "application/json");
+            if (json.isPresent() && !json.equals(cachedJson)) {
+                parseProviders(json.get(), PROVIDERS_URL);
+            } else if (json.isEmpty()) {
+                log.error("oEmbed providers are unavailable");
             }
 
-            loadProvidersFromCache();
+            deleteLegacyCache();
         }, 100);
     }
 
-    private void saveProvidersToCache(String providersJson) {
-        Path filePath = getProvidersCachePath();
+    private void parseProviders(String json, String source) {
         try {
-            Files.createDirectories(filePath.getParent());
-            Files.writeString(filePath, providersJson,
-                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            setProviders(GDownloader.OBJECT_MAPPER.readValue(json,
+                GDownloader.OBJECT_MAPPER.getTypeFactory().constructCollectionType(
+                    List.class, Provider.class)));
 
-            log.debug("Saved oEmbed providers to {}", filePath);
+            log.info("Loaded {} oEmbed providers from {}", providers.size(), source);
         } catch (IOException e) {
-            log.error("Failed to save oEmbed providers to cache file", e);
+            log.error("Error parsing oEmbed providers from {}", source, e);
         }
     }
 
-    private boolean loadProvidersFromCache() {
-        Path filePath = getProvidersCachePath();
-        if (!Files.exists(filePath)) {
-            log.warn("Local providers file does not exist: {}", filePath);
-
-            return false;
-        }
+    private void setProviders(List<Provider> providersIn) {
+        // Compiled before publishing, lookups never see a half built matcher
+        matcher = new OEmbedProviderMatcher(providersIn);
+        providers = providersIn;
+    }
 
+    private void deleteLegacyCache() {
         try {
-            String fileContent = Files.readString(filePath);
-            providers = GDownloader.OBJECT_MAPPER.readValue(fileContent,
-                GDownloader.OBJECT_MAPPER.getTypeFactory().constructCollectionType(
-                    List.class, Provider.class));
-            log.info("Loaded {} oEmbed providers from cache", providers.size());
-
-            return true;
+            Files.deleteIfExists(Path.of(GDownloader.getWorkDirectory().getAbsolutePath(), "oembed_providers.json"));
         } catch (IOException e) {
-            log.error("Error loading oEmbed providers from cache", e);
-
-            return false;
+            log.error("Failed to delete legacy oEmbed providers cache", e);
         }
     }
 
-    private Path getProvidersCachePath() {
-        return Path.of(GDownloader.getWorkDirectory().getAbsolutePath(), "oembed_providers.json");
-    }
-
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
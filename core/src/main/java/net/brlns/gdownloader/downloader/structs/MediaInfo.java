@@ -32,6 +32,7 @@ import net.brlns.gdownloader.persistence.PersistenceManager;
 import net.brlns.gdownloader.persistence.entity.MediaInfoEntity;
 
 import static net.brlns.gdownloader.util.StringUtils.notNullOrEmpty;
+import static net.brlns.gdownloader.util.StringUtils.nullOrEmpty;
 
 /**
  * @author Gabriel / hstr0100 / vertx010
@@ -104,6 +105,9 @@ public class MediaInfo {
     @JsonIgnore
     private String base64EncodedThumbnail = "";
 
+    @JsonIgnore
+    private String thumbnailHash;
+
     @JsonIgnore
     public boolean isValid() {
         // Not much usefulness to this if these are missing
@@ -111,6 +115,20 @@ public class MediaInfo {
             || thumbnail != null && !thumbnail.isEmpty();
     }
 
+    /**
+     * Identifies the media regardless of the url it was captured from, or null if that is not known.
+     */
+    @JsonIgnore
+    @Nullable
+    public String getMediaIdentity() {
+        // Playlist queries only return their first item, which does not identify the playlist
+        if (nullOrEmpty(id) || nullOrEmpty(extractorKey) || notNullOrEmpty(playlistTitle)) {
+            return null;
+        }
+
+        return extractorKey.toLowerCase() + " " + id;
+    }
+
     // TODO: implement
     @JsonIgnore
     @Nullable
@@ -158,7 +176,8 @@ public class MediaInfo {
             .convertValue(this, MediaInfoEntity.class);
 
         entity.setDownloadId(downloadId);
-        entity.setBase64EncodedThumbnail(base64EncodedThumbnail);
+        entity.setThumbnailHash(thumbnailHash);
+        entity.setBase64EncodedThumbnail(notNullOrEmpty(thumbnailHash) ? null : base64EncodedThumbnail);
 
         return entity;
     }
@@ -169,6 +188,7 @@ public class MediaInfo {
     public static MediaInfo fromEntity(MediaInfoEntity entity) {
         MediaInfo info = PersistenceManager.ENTITY_MAPPER.convertValue(entity, MediaInfo.class);
         info.setBase64EncodedThumbnail(entity.getBase64EncodedThumbnail());
+        info.setThumbnailHash(entity.getThumbnailHash());
 
         return info;
     }
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.downloader.structs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Data
+@AllArgsConstructor
+public class PlaylistExpansionResult {
+
+    // Includes items skipped because they were already archived
+    private final int listed;
+
+    // Whether the whole playlist was listed, as opposed to the listing failing or being cancelled partway through
+    private final boolean complete;
+}
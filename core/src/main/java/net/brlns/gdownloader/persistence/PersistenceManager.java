@@ -33,7 +33,9 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.brlns.gdownloader.GDownloader;
 import net.brlns.gdownloader.persistence.repository.CounterRepository;
+import net.brlns.gdownloader.persistence.repository.LogLineRepository;
 import net.brlns.gdownloader.persistence.repository.MediaInfoRepository;
+import net.brlns.gdownloader.persistence.repository.MetadataCacheRepository;
 import net.brlns.gdownloader.persistence.repository.QueueEntryRepository;
 import org.eclipse.persistence.config.PersistenceUnitProperties;
 
@@ -79,9 +81,22 @@ public class PersistenceManager {
     @Getter
     private MediaInfoRepository mediaInfos;
 
+    @Getter
+    private LogLineRepository logLines;
+
+    @Getter
+    private MetadataCacheRepository metadataCache;
+
+    @Getter
+    private WriteBehindQueue writeQueue;
+
+    @Getter
+    private final ThumbnailStore thumbnails;
+
     public PersistenceManager(GDownloader mainIn) {
         main = mainIn;
         databaseDirectory = new File(GDownloader.getWorkDirectory(), "db");
+        thumbnails = new ThumbnailStore();
     }
 
     @PostConstruct
@@ -123,6 +138,12 @@ public class PersistenceManager {
             queueEntries = new QueueEntryRepository(emf);
             mediaInfos = new MediaInfoRepository(emf);
 
+            logLines = new LogLineRepository(emf);
+            metadataCache = new MetadataCacheRepository(emf);
+
+            writeQueue = new WriteBehindQueue(emf, mediaInfos, logLines);
+            writeQueue.start();
+
             log.info("{} db is now open", databaseFile);
             initialized = true;
             return true;
@@ -135,6 +156,18 @@ public class PersistenceManager {
 
     @PreDestroy
     public void close() {
+        if (writeQueue != null) {
+            writeQueue.close();
+        }
+
+        if (counters != null) {
+            try {
+                counters.releaseBlocks();
+            } catch (Exception e) {
+                log.error("Cannot release reserved counter values", e);
+            }
+        }
+
         if (emf != null && emf.isOpen()) {
             emf.close();
         }
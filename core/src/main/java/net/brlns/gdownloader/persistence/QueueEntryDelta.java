@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.persistence;
+
+import jakarta.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import net.brlns.gdownloader.downloader.enums.DownloaderIdEnum;
+import net.brlns.gdownloader.persistence.entity.LogLineEntity;
+import net.brlns.gdownloader.persistence.entity.LogTypeEnum;
+import net.brlns.gdownloader.persistence.entity.MediaInfoEntity;
+import net.brlns.gdownloader.persistence.entity.QueueEntryEntity;
+
+/**
+ * The changes to a queue entry since its previous checkpoint.
+ *
+ * Either a full entity, written when the row may not exist yet, or only the modified
+ * columns, collections and newly appended log lines.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Data
+public class QueueEntryDelta {
+
+    private final long downloadId;
+
+    @Nullable
+    private QueueEntryEntity fullEntity;
+
+    // Entity attribute name to new value
+    private final Map<String, Object> changedColumns = new LinkedHashMap<>();
+
+    @Nullable
+    private ArrayList<DownloaderIdEnum> downloaderBlacklist;
+    @Nullable
+    private ArrayList<String> finalMediaFilePaths;
+    @Nullable
+    private ArrayList<String> lastCommandLine;
+    @Nullable
+    private MediaInfoEntity mediaInfo;
+
+    private final List<LogLineEntity> appendedLogLines = new ArrayList<>();
+    private final Map<LogTypeEnum, Long> logLinesKeptFrom = new EnumMap<>(LogTypeEnum.class);
+
+    // What the old rewrite-everything checkpoint would have written, for comparison
+    private long estimatedFullBytes;
+
+    public boolean isFullWrite() {
+        return fullEntity != null;
+    }
+
+    public boolean hasCollectionChanges() {
+        return downloaderBlacklist != null
+            || finalMediaFilePaths != null
+            || lastCommandLine != null
+            || mediaInfo != null;
+    }
+
+    public boolean isEmpty() {
+        return !isFullWrite()
+            && changedColumns.isEmpty()
+            && !hasCollectionChanges()
+            && appendedLogLines.isEmpty();
+    }
+
+    /**
+     * Rough size of the data this delta writes, counting characters for text.
+     */
+    public long estimateWrittenBytes() {
+        if (isFullWrite()) {
+            return estimatedFullBytes;
+        }
+
+        long size = estimateSize(changedColumns.values())
+            + estimateSize(downloaderBlacklist)
+            + estimateSize(finalMediaFilePaths)
+            + estimateSize(lastCommandLine)
+            + estimateSize(mediaInfo);
+
+        for (LogLineEntity line : appendedLogLines) {
+            size += estimateSize(line.getContent()) + 24;
+        }
+
+        return size;
+    }
+
+    public static long estimateSize(@Nullable Object value) {
+        return switch (value) {
+            case null ->
+                0;
+            case CharSequence sequence ->
+                sequence.length();
+            case Enum<?> enumValue ->
+                enumValue.name().length();
+            case Collection<?> collection -> {
+                long size = 0;
+                for (Object element : collection) {
+                    size += estimateSize(element);
+                }
+
+                yield size;
+            }
+            case MediaInfoEntity info ->
+                estimateSize(info.getTitle())
+                + estimateSize(info.getDescription())
+                + estimateSize(info.getBase64EncodedThumbnail())
+                + 128;
+            default ->
+                8;
+        };
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.persistence;
+
+import jakarta.annotation.Nullable;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import net.brlns.gdownloader.GDownloader;
+import net.brlns.gdownloader.util.FileUtils;
+import net.brlns.gdownloader.util.collection.LRUCache;
+
+/**
+ * Content-addressed thumbnail storage.
+ *
+ * Thumbnails are stored once as JPEG files named after the SHA-256 of their encoded bytes,
+ * and referenced by that hash from {@link net.brlns.gdownloader.persistence.entity.MediaInfoEntity}.
+ * Identical thumbnails, like the ones shared by every entry of a playlist, end up in a single file.
+ * Recently used images are kept decoded in memory.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Slf4j
+public class ThumbnailStore {
+
+    private static final String EXTENSION = ".jpg";
+    private static final float JPEG_QUALITY = 0.85f;
+
+    // Files younger than this are never collected, their references may still be waiting to be written
+    private static final long GC_GRACE_PERIOD_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final File directory;
+
+    private final LRUCache<String, BufferedImage> cache = new LRUCache<>(256);
+
+    public ThumbnailStore() {
+        directory = new File(GDownloader.getWorkDirectory(), "thumbnails");
+    }
+
+    /**
+     * Encodes and stores the image, returning its hash, or null if it could not be stored.
+     */
+    @Nullable
+    public String store(BufferedImage image) {
+        try {
+            byte[] encoded = encode(image);
+            String hash = FileUtils.sha256Hex(encoded);
+
+            Path path = getPath(hash);
+            if (!Files.exists(path)) {
+                Files.createDirectories(path.getParent());
+
+                // Unique per call, the same thumbnail may be stored by several threads at once
+                Path tmpPath = Files.createTempFile(path.getParent(), hash, ".tmp");
+                try {
+                    Files.write(tmpPath, encoded);
+
+                    FileUtils.atomicMove(tmpPath, path);
+                } finally {
+                    Files.deleteIfExists(tmpPath);
+                }
+            }
+
+            synchronized (cache) {
+                cache.put(hash, image);
+            }
+
+            return hash;
+        } catch (IOException e) {
+            log.error("Cannot store thumbnail", e);
+            return null;
+        }
+    }
+
+    public Optional<BufferedImage> load(String hash) {
+        synchronized (cache) {
+            BufferedImage cached = cache.get(hash);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+
+        File file = getPath(hash).toFile();
+        if (!file.exists()) {
+            return Optional.empty();
+        }
+
+        try {
+            BufferedImage image = ImageIO.read(file);
+            if (image != null) {
+                synchronized (cache) {
+                    cache.put(hash, image);
+                }
+            }
+
+            return Optional.ofNullable(image);
+        } catch (IOException e) {
+            log.error("Cannot read thumbnail {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Deletes every stored thumbnail that is not in the given set of referenced hashes.
+     */
+    public void collectGarbage(Set<String> referencedHashes) {
+        if (!directory.exists()) {
+            return;
+        }
+
+        long cutoff = System.currentTimeMillis() - GC_GRACE_PERIOD_MILLIS;
+        int deleted = 0;
+
+        try (Stream<Path> stream = Files.walk(directory.toPath())) {
+            Iterator<Path> iterator = stream.filter(Files::isRegularFile).iterator();
+
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+
+                String fileName = path.getFileName().toString();
+                String hash = fileName.endsWith(EXTENSION)
+                    ? fileName.substring(0, fileName.length() - EXTENSION.length())
+                    : null;
+
+                if (hash != null && referencedHashes.contains(hash)) {
+                    continue;
+                }
+
+                if (Files.getLastModifiedTime(path).toMillis() > cutoff) {
+                    continue;
+                }
+
+                Files.deleteIfExists(path);
+                deleted++;
+            }
+        } catch (IOException e) {
+            log.error("Thumbnail garbage collection failed", e);
+        }
+
+        if (deleted > 0) {
+            log.info("Removed {} unreferenced thumbnails", deleted);
+        }
+    }
+
+    private Path getPath(String hash) {
+        // Spread files over subdirectories to keep directory listings short
+        return directory.toPath()
+            .resolve(hash.substring(0, 2))
+            .resolve(hash + EXTENSION);
+    }
+
+    private static byte[] encode(BufferedImage image) throws IOException {
+        BufferedImage rgbImage = image;
+        if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+            // JPEG has no alpha channel, flatten onto black like the card background would
+            rgbImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+
+            Graphics2D g = rgbImage.createGraphics();
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.drawImage(image, 0, 0, null);
+            g.dispose();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
+             ImageOutputStream ios = ImageIO.createImageOutputStream(bos)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(rgbImage, null, null), param);
+            ios.flush();
+
+            return bos.toByteArray();
+        } finally {
+            writer.dispose();
+        }
+    }
+}
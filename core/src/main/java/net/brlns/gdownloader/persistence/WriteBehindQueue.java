@@ -0,0 +1,429 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.persistence;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Query;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.brlns.gdownloader.persistence.entity.LogLineEntity;
+import net.brlns.gdownloader.persistence.entity.LogTypeEnum;
+import net.brlns.gdownloader.persistence.entity.MediaInfoEntity;
+import net.brlns.gdownloader.persistence.entity.QueueEntryEntity;
+import net.brlns.gdownloader.persistence.repository.LogLineRepository;
+import net.brlns.gdownloader.persistence.repository.MediaInfoRepository;
+
+/**
+ * Write-behind buffer for queue checkpoints.
+ *
+ * Callers only record the latest intended state per download id, a dedicated thread writes
+ * everything accumulated since the last pass in a single transaction. Repeated checkpoints of the
+ * same download in between passes collapse into one write, which only carries what changed since
+ * the previous one, see {@link QueueEntryDelta}.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Slf4j
+public class WriteBehindQueue {
+
+    // How long to keep accumulating changes after the first one arrives
+    private static final long BATCH_WINDOW_MILLIS = 250;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final EntityManagerFactory emf;
+    private final MediaInfoRepository mediaInfos;
+    private final LogLineRepository logLines;
+
+    private final Map<Long, PendingWrite> pendingEntries = new ConcurrentHashMap<>();
+    private final Map<Long, MediaInfoEntity> pendingMediaInfos = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Checkpoint count, estimated bytes written and estimated bytes a full rewrite would have taken.
+    // Both sides come from QueueEntryDelta's size estimate, not from what the database actually wrote.
+    private final Map<Long, long[]> statsPerDownload = new ConcurrentHashMap<>();
+    private final AtomicLong estimatedWrittenBytes = new AtomicLong();
+    private final AtomicLong estimatedFullRewriteBytes = new AtomicLong();
+
+    private volatile Thread writerThread;
+
+    private volatile boolean closed;
+
+    public WriteBehindQueue(EntityManagerFactory emfIn, MediaInfoRepository mediaInfosIn, LogLineRepository logLinesIn) {
+        emf = emfIn;
+        mediaInfos = mediaInfosIn;
+        logLines = logLinesIn;
+    }
+
+    /**
+     * Starts the writer thread. Until then, checkpoints are only accumulated.
+     */
+    public void start() {
+        if (writerThread != null) {
+            throw new IllegalStateException("Writer thread already started");
+        }
+
+        Thread thread = new Thread(this::writerLoop);
+        thread.setName("PersistenceWriter");
+        thread.setDaemon(true);
+
+        writerThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Schedules a checkpoint, the delta is only computed when the batch is written.
+     */
+    public void saveQueueEntry(ICheckpointSource source) {
+        enqueue(() -> pendingEntries.put(source.getDownloadId(), new PendingWrite(source)));
+    }
+
+    /**
+     * Schedules several checkpoints at once, so they are guaranteed to land in the same batch.
+     */
+    public void saveQueueEntries(Collection<? extends ICheckpointSource> sources) {
+        enqueue(() -> {
+            for (ICheckpointSource source : sources) {
+                pendingEntries.put(source.getDownloadId(), new PendingWrite(source));
+            }
+        });
+    }
+
+    public void removeQueueEntry(long downloadId) {
+        enqueue(() -> {
+            pendingEntries.put(downloadId, PendingWrite.REMOVAL);
+            pendingMediaInfos.remove(downloadId);
+        });
+    }
+
+    public void saveMediaInfo(MediaInfoEntity mediaInfo) {
+        if (mediaInfo.getDownloadId() == null) {
+            throw new IllegalArgumentException("downloadId cannot be null");
+        }
+
+        enqueue(() -> pendingMediaInfos.put(mediaInfo.getDownloadId(), mediaInfo));
+    }
+
+    private void enqueue(Runnable action) {
+        if (closed) {
+            // Late writes during shutdown go straight through
+            action.run();
+            flush();
+            return;
+        }
+
+        action.run();
+
+        LockSupport.unpark(writerThread);
+    }
+
+    private boolean hasPendingWrites() {
+        return !pendingEntries.isEmpty()
+            || !pendingMediaInfos.isEmpty();
+    }
+
+    private void writerLoop() {
+        while (!closed) {
+            if (!hasPendingWrites()) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            try {
+                Thread.sleep(BATCH_WINDOW_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Unexpected error while flushing pending writes", e);
+            }
+        }
+    }
+
+    /**
+     * Writes all pending changes in a single transaction, blocking until done.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (!hasPendingWrites()) {
+                return;
+            }
+
+            Map<Long, PendingWrite> entries = drain(pendingEntries);
+            Map<Long, MediaInfoEntity> infos = drain(pendingMediaInfos);
+
+            Map<Long, QueueEntryDelta> deltas = new LinkedHashMap<>();
+            Set<Long> removals = new LinkedHashSet<>();
+
+            for (Map.Entry<Long, PendingWrite> entry : entries.entrySet()) {
+                PendingWrite write = entry.getValue();
+
+                if (write.isRemoval()) {
+                    removals.add(entry.getKey());
+                } else {
+                    QueueEntryDelta delta = write.getSource().createDelta();
+                    if (!delta.isEmpty()) {
+                        deltas.put(entry.getKey(), delta);
+                    }
+                }
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Flushing {} checkpoints, {} removals, {} media infos",
+                    deltas.size(), removals.size(), infos.size());
+            }
+
+            if (writeBatch(deltas, removals, infos)) {
+                recordStats(deltas, removals);
+                return;
+            }
+
+            // Isolate whatever made the batch fail instead of losing every write in it.
+            // The failed deltas were already consumed, so their entries must be written in full.
+            log.warn("Batch write failed, retrying writes individually");
+
+            for (Map.Entry<Long, PendingWrite> entry : entries.entrySet()) {
+                long downloadId = entry.getKey();
+                PendingWrite write = entry.getValue();
+
+                if (write.isRemoval()) {
+                    if (writeBatch(Map.of(), Set.of(downloadId), Map.of())) {
+                        recordStats(Map.of(), Set.of(downloadId));
+                    }
+
+                    continue;
+                }
+
+                ICheckpointSource source = write.getSource();
+                source.invalidateCheckpoint();
+
+                Map<Long, QueueEntryDelta> single = Map.of(downloadId, source.createDelta());
+                if (writeBatch(single, Set.of(), Map.of())) {
+                    recordStats(single, Set.of());
+                } else {
+                    source.invalidateCheckpoint();
+                }
+            }
+
+            infos.forEach((id, info) -> writeBatch(Map.of(), Set.of(), Map.of(id, info)));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean writeBatch(Map<Long, QueueEntryDelta> deltas, Set<Long> removals,
+        Map<Long, MediaInfoEntity> infos) {
+        try (EntityManager em = emf.createEntityManager()) {
+            try {
+                em.getTransaction().begin();
+
+                for (long downloadId : removals) {
+                    QueueEntryEntity entity = em.find(QueueEntryEntity.class, downloadId);
+                    if (entity != null) {
+                        em.remove(entity);
+                    }
+
+                    logLines.removeAll(em, downloadId);
+                }
+
+                for (QueueEntryDelta delta : deltas.values()) {
+                    writeDelta(em, delta);
+                }
+
+                // Must come after the queue entries, media infos are only attached to existing entries
+                for (MediaInfoEntity mediaInfo : infos.values()) {
+                    mediaInfos.addMediaInfo(em, mediaInfo);
+                }
+
+                em.getTransaction().commit();
+                return true;
+            } catch (Exception e) {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+
+                log.error("Failed to write batch", e);
+                return false;
+            }
+        } catch (IllegalStateException e) {
+            log.error("Cannot write batch, database is closed", e);
+            return false;
+        }
+    }
+
+    private void writeDelta(EntityManager em, QueueEntryDelta delta) {
+        long downloadId = delta.getDownloadId();
+
+        if (delta.isFullWrite()) {
+            em.merge(delta.getFullEntity());
+
+            // The delta carries the whole in-memory tail
+            logLines.removeAll(em, downloadId);
+        } else {
+            if (!delta.getChangedColumns().isEmpty()) {
+                updateColumns(em, downloadId, delta.getChangedColumns());
+            }
+
+            if (delta.hasCollectionChanges()) {
+                QueueEntryEntity entity = em.find(QueueEntryEntity.class, downloadId);
+                if (entity == null) {
+                    throw new IllegalStateException("No checkpoint to update for " + downloadId);
+                }
+
+                if (delta.getDownloaderBlacklist() != null) {
+                    entity.setDownloaderBlacklist(delta.getDownloaderBlacklist());
+                }
+
+                if (delta.getFinalMediaFilePaths() != null) {
+                    entity.setFinalMediaFilePaths(delta.getFinalMediaFilePaths());
+                }
+
+                if (delta.getLastCommandLine() != null) {
+                    entity.setLastCommandLine(delta.getLastCommandLine());
+                }
+
+                if (delta.getMediaInfo() != null) {
+                    mediaInfos.addMediaInfo(em, delta.getMediaInfo());
+                }
+            }
+
+            for (Map.Entry<LogTypeEnum, Long> entry : delta.getLogLinesKeptFrom().entrySet()) {
+                logLines.removeBefore(em, downloadId, entry.getKey(), entry.getValue());
+            }
+        }
+
+        for (LogLineEntity line : delta.getAppendedLogLines()) {
+            em.persist(line);
+        }
+    }
+
+    private void updateColumns(EntityManager em, long downloadId, Map<String, Object> columns) {
+        StringBuilder jpql = new StringBuilder("UPDATE QueueEntryEntity e SET ");
+
+        boolean first = true;
+        for (String attribute : columns.keySet()) {
+            if (!first) {
+                jpql.append(", ");
+            }
+
+            jpql.append("e.").append(attribute).append(" = :").append(attribute);
+            first = false;
+        }
+
+        jpql.append(" WHERE e.downloadId = :downloadId");
+
+        Query query = em.createQuery(jpql.toString());
+        for (Map.Entry<String, Object> column : columns.entrySet()) {
+            query.setParameter(column.getKey(), column.getValue());
+        }
+
+        query.setParameter("downloadId", downloadId);
+
+        if (query.executeUpdate() == 0) {
+            throw new IllegalStateException("No checkpoint to update for " + downloadId);
+        }
+    }
+
+    private void recordStats(Map<Long, QueueEntryDelta> deltas, Set<Long> removals) {
+        for (QueueEntryDelta delta : deltas.values()) {
+            long written = delta.estimateWrittenBytes();
+            long full = delta.getEstimatedFullBytes();
+
+            estimatedWrittenBytes.addAndGet(written);
+            estimatedFullRewriteBytes.addAndGet(full);
+
+            long[] stats = statsPerDownload.computeIfAbsent(delta.getDownloadId(), k -> new long[3]);
+            stats[0]++;
+            stats[1] += written;
+            stats[2] += full;
+        }
+
+        for (long downloadId : removals) {
+            long[] stats = statsPerDownload.remove(downloadId);
+
+            if (stats != null && log.isDebugEnabled()) {
+                log.debug("Download {}: {} checkpoints wrote an estimated {} bytes, full rewrites an estimated {} bytes",
+                    downloadId, stats[0], stats[1], stats[2]);
+            }
+        }
+    }
+
+    private static <K, V> Map<K, V> drain(Map<K, V> source) {
+        Map<K, V> drained = new LinkedHashMap<>();
+
+        for (K key : source.keySet()) {
+            V value = source.remove(key);
+            if (value != null) {
+                drained.put(key, value);
+            }
+        }
+
+        return drained;
+    }
+
+    /**
+     * Stops the writer thread and synchronously writes anything still pending.
+     */
+    public void close() {
+        closed = true;
+
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+
+            try {
+                thread.join(CLOSE_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flush();
+
+        log.info("Checkpoints wrote an estimated {} bytes this session, full rewrites an estimated {} bytes",
+            estimatedWrittenBytes.get(), estimatedFullRewriteBytes.get());
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class PendingWrite {
+
+        private static final PendingWrite REMOVAL = new PendingWrite(null);
+
+        private final ICheckpointSource source;
+
+        public boolean isRemoval() {
+            return source == null;
+        }
+    }
+}
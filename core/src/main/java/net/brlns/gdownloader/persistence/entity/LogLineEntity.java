@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.persistence.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single line of a download's persisted log tail.
+ *
+ * Kept in its own table instead of an element collection so checkpoints can append
+ * new lines without rewriting the whole log.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "log_lines", indexes = {
+    @Index(name = "idx_log_lines_download_id", columnList = "download_id")
+})
+public class LogLineEntity implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "log_line_id")
+    private Long logLineId;
+
+    @Column(name = "download_id")
+    private long downloadId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "log_type")
+    private LogTypeEnum logType;
+
+    @Column(name = "line_index")
+    private long lineIndex;
+
+    @Column(name = "content", columnDefinition = "LONGVARCHAR")
+    private String content;
+
+    public LogLineEntity(long downloadIdIn, LogTypeEnum logTypeIn, long lineIndexIn, String contentIn) {
+        downloadId = downloadIdIn;
+        logType = logTypeIn;
+        lineIndex = lineIndexIn;
+        content = contentIn;
+    }
+}
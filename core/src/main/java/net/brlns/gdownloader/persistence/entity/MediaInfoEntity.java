@@ -54,9 +54,13 @@ public class MediaInfoEntity implements Serializable {
     @Column(name = "host_display_name", length = 2048)
     private String hostDisplayName;
 
+    // Legacy, thumbnails are now kept in the ThumbnailStore and only referenced by hash
     @Column(name = "thumbnail", columnDefinition = "LONGVARCHAR")
     private String base64EncodedThumbnail;
 
+    @Column(name = "thumbnail_hash", length = 64)
+    private String thumbnailHash;
+
     @Column(name = "description", columnDefinition = "LONGVARCHAR")
     private String description;
 
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.persistence.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "metadata_cache", indexes = {
+    @Index(name = "idx_metadata_cache_expires_at", columnList = "expires_at")
+})
+public class MetadataCacheEntity implements Serializable {
+
+    @Id
+    @Column(name = "cache_key", length = 4096)
+    private String cacheKey;
+
+    @Column(name = "media_info", columnDefinition = "LONGVARCHAR")
+    private String mediaInfoJson;
+
+    @Column(name = "thumbnail_hash", length = 64)
+    private String thumbnailHash;
+
+    @Column(name = "expires_at")
+    private long expiresAt;
+
+    @Override
+    public String toString() {
+        return "MetadataCacheEntity{"
+            + "cacheKey='" + cacheKey + '\''
+            + ", expiresAt=" + expiresAt
+            + '}';
+    }
+}
@@ -104,19 +104,4 @@ public class QueueEntryEntity implements Serializable {
     @OrderColumn
     @Column(name = "last_command_line")
     private ArrayList<String> lastCommandLine = new ArrayList<>();
-
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "error_logs", joinColumns = @JoinColumn(name = "download_id"))
-    @Lob
-    @OrderColumn
-    @Column(name = "error_log")
-    private ArrayList<String> errorLog = new ArrayList<>();
-
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "download_logs", joinColumns = @JoinColumn(name = "download_id"))
-    @Lob
-    @OrderColumn
-    @Column(name = "download_log")
-    // TODO: check if this is really necessary
-    private ArrayList<String> downloadLog = new ArrayList<>();
 }
@@ -18,6 +18,9 @@ package net.brlns.gdownloader.persistence.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 import net.brlns.gdownloader.persistence.entity.CounterEntity;
 import net.brlns.gdownloader.persistence.entity.CounterTypeEnum;
@@ -28,10 +31,101 @@ import net.brlns.gdownloader.persistence.entity.CounterTypeEnum;
 @Slf4j
 public class CounterRepository extends AbstractRepository {
 
+    // Ids reserved per database write, unused ones are given back on shutdown
+    private static final int BLOCK_SIZE = 64;
+
+    private final Map<CounterTypeEnum, IdBlock> idBlocks = new ConcurrentHashMap<>();
+
     public CounterRepository(EntityManagerFactory emfIn) {
         super(emfIn);
     }
 
+    /**
+     * Hands out the next value of the counter from a block reserved in advance,
+     * only touching the database once every {@value #BLOCK_SIZE} calls.
+     */
+    public long nextValue(CounterTypeEnum counterType) {
+        return nextValues(counterType, 1);
+    }
+
+    /**
+     * Hands out a contiguous range of values, reserving a larger block if the range does not fit in one.
+     *
+     * @return the first value of the range, the rest follow it.
+     */
+    public long nextValues(CounterTypeEnum counterType, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+
+        IdBlock block = idBlocks.computeIfAbsent(counterType, type -> new IdBlock());
+
+        while (true) {
+            long limit = block.limit;
+            long value = block.current.addAndGet(count);
+            if (value <= limit) {
+                return value - count + 1;
+            }
+
+            synchronized (block) {
+                // Another thread may have already reserved the next block while we waited
+                if (block.limit == limit) {
+                    int size = Math.max(BLOCK_SIZE, count);
+                    long start = reserveBlock(counterType, size);
+
+                    // Every id in the new block is past the old limit, so callers still holding
+                    // the old limit cannot accept a value from it, they just retry.
+                    block.current.set(start);
+                    block.limit = start + size;
+                }
+            }
+        }
+    }
+
+    /**
+     * Advances the stored counter by the given amount in a single transaction.
+     *
+     * @return the stored value before the reservation, the reserved range starts right after it.
+     */
+    public long reserveBlock(CounterTypeEnum counterType, int size) {
+        try (EntityManager em = getEmf().createEntityManager()) {
+            em.getTransaction().begin();
+
+            CounterEntity counter = em.find(CounterEntity.class, counterType);
+            if (counter == null) {
+                counter = new CounterEntity(counterType, 0);
+                em.persist(counter);
+            }
+
+            long start = counter.getValue();
+            counter.setValue(start + size);
+
+            em.getTransaction().commit();
+
+            return start;
+        }
+    }
+
+    /**
+     * Writes back the last value handed out for each counter, so the unused part of its block
+     * is available again on the next start.
+     */
+    public void releaseBlocks() {
+        for (Map.Entry<CounterTypeEnum, IdBlock> entry : idBlocks.entrySet()) {
+            IdBlock block = entry.getValue();
+
+            synchronized (block) {
+                long used = Math.min(block.current.get(), block.limit);
+                if (used < block.limit) {
+                    upsert(new CounterEntity(entry.getKey(), used));
+                }
+
+                // Anything requested after this point reserves a fresh block
+                block.limit = used;
+            }
+        }
+    }
+
     public long getCurrentValue(CounterTypeEnum counterType) {
         try (EntityManager em = getEmf().createEntityManager()) {
             CounterEntity counter = em.find(CounterEntity.class, counterType);
@@ -75,4 +169,10 @@ public class CounterRepository extends AbstractRepository {
             return managedEntity;
         }
     }
+
+    private static class IdBlock {
+
+        private final AtomicLong current = new AtomicLong();
+        private volatile long limit;
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.persistence.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Collection;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import net.brlns.gdownloader.persistence.entity.LogLineEntity;
+import net.brlns.gdownloader.persistence.entity.LogTypeEnum;
+
+/**
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Slf4j
+public class LogLineRepository extends PersistenceRepository<Long, LogLineEntity> {
+
+    public LogLineRepository(EntityManagerFactory emfIn) {
+        super(emfIn, LogLineEntity.class);
+    }
+
+    /**
+     * @return the lines of all given downloads, grouped by download and log type, oldest first.
+     */
+    public List<LogLineEntity> getLines(Collection<Long> downloadIds) {
+        if (downloadIds.isEmpty()) {
+            return List.of();
+        }
+
+        try (EntityManager em = getEmf().createEntityManager()) {
+            return em.createQuery("SELECT l FROM LogLineEntity l"
+                + " WHERE l.downloadId IN :downloadIds"
+                + " ORDER BY l.downloadId, l.logType, l.lineIndex", LogLineEntity.class)
+                .setParameter("downloadIds", downloadIds)
+                .getResultList();
+        } catch (Exception e) {
+            log.error("Failed to obtain log lines", e);
+            return List.of();
+        }
+    }
+
+    public void removeAll(EntityManager em, long downloadId) {
+        em.createQuery("DELETE FROM LogLineEntity l WHERE l.downloadId = :downloadId")
+            .setParameter("downloadId", downloadId)
+            .executeUpdate();
+    }
+
+    /**
+     * Drops lines that fell out of the in-memory tail.
+     */
+    public void removeBefore(EntityManager em, long downloadId, LogTypeEnum logType, long lineIndex) {
+        em.createQuery("DELETE FROM LogLineEntity l"
+            + " WHERE l.downloadId = :downloadId AND l.logType = :logType AND l.lineIndex < :lineIndex")
+            .setParameter("downloadId", downloadId)
+            .setParameter("logType", logType)
+            .setParameter("lineIndex", lineIndex)
+            .executeUpdate();
+    }
+}
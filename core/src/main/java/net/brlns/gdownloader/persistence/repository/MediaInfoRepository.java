@@ -18,6 +18,8 @@ package net.brlns.gdownloader.persistence.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import java.util.HashSet;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import net.brlns.gdownloader.persistence.entity.MediaInfoEntity;
 import net.brlns.gdownloader.persistence.entity.QueueEntryEntity;
@@ -44,20 +46,36 @@ public class MediaInfoRepository extends PersistenceRepository<Long, MediaInfoEn
         try (EntityManager em = getEmf().createEntityManager()) {
             em.getTransaction().begin();
 
-            QueueEntryEntity queueEntry = em.find(QueueEntryEntity.class, mediaInfo.getDownloadId());
-            if (queueEntry != null) {
-                MediaInfoEntity existingInfo = em.find(MediaInfoEntity.class, mediaInfo.getDownloadId());
-                if (existingInfo == null) {
-                    em.persist(mediaInfo);
-                } else {
-                    em.merge(mediaInfo);
-                }
-
-                queueEntry.setMediaInfo(mediaInfo);
-                em.merge(queueEntry);
-            }
+            addMediaInfo(em, mediaInfo);
 
             em.getTransaction().commit();
         }
     }
+
+    /**
+     * Attaches the media info to its queue entry within the caller's transaction.
+     */
+    public void addMediaInfo(EntityManager em, MediaInfoEntity mediaInfo) {
+        QueueEntryEntity queueEntry = em.find(QueueEntryEntity.class, mediaInfo.getDownloadId());
+        if (queueEntry != null) {
+            MediaInfoEntity existingInfo = em.find(MediaInfoEntity.class, mediaInfo.getDownloadId());
+            if (existingInfo == null) {
+                em.persist(mediaInfo);
+            } else {
+                em.merge(mediaInfo);
+            }
+
+            queueEntry.setMediaInfo(mediaInfo);
+            em.merge(queueEntry);
+        }
+    }
+
+    public Set<String> getThumbnailHashes() {
+        try (EntityManager em = getEmf().createEntityManager()) {
+            return new HashSet<>(em.createQuery(
+                "SELECT DISTINCT m.thumbnailHash FROM MediaInfoEntity m WHERE m.thumbnailHash IS NOT NULL",
+                String.class)
+                .getResultList());
+        }
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.persistence.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import net.brlns.gdownloader.persistence.entity.MetadataCacheEntity;
+
+/**
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Slf4j
+public class MetadataCacheRepository extends PersistenceRepository<String, MetadataCacheEntity> {
+
+    public MetadataCacheRepository(EntityManagerFactory emfIn) {
+        super(emfIn, MetadataCacheEntity.class);
+    }
+
+    public int removeExpired(long now) {
+        try (EntityManager em = getEmf().createEntityManager()) {
+            em.getTransaction().begin();
+
+            int removed = em.createQuery(
+                "DELETE FROM MetadataCacheEntity m WHERE m.expiresAt <= :now")
+                .setParameter("now", now)
+                .executeUpdate();
+
+            em.getTransaction().commit();
+
+            return removed;
+        } catch (Exception e) {
+            log.error("Failed to remove expired metadata", e);
+            return 0;
+        }
+    }
+
+    public Set<String> getThumbnailHashes() {
+        try (EntityManager em = getEmf().createEntityManager()) {
+            return new HashSet<>(em.createQuery(
+                "SELECT DISTINCT m.thumbnailHash FROM MetadataCacheEntity m WHERE m.thumbnailHash IS NOT NULL",
+                String.class)
+                .getResultList());
+        }
+    }
+}
@@ -16,16 +16,57 @@
  */
 package net.brlns.gdownloader.persistence.repository;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import java.util.Collection;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import net.brlns.gdownloader.downloader.enums.QueueCategoryEnum;
 import net.brlns.gdownloader.persistence.entity.QueueEntryEntity;
+import org.eclipse.persistence.annotations.BatchFetchType;
+import org.eclipse.persistence.config.QueryHints;
 
 /**
  * @author Gabriel / hstr0100 / vertx010
  */
+@Slf4j
 public class QueueEntryRepository extends PersistenceRepository<Long, QueueEntryEntity> {
 
     public QueueEntryRepository(EntityManagerFactory emfIn) {
         super(emfIn, QueueEntryEntity.class);
     }
 
+    /**
+     * Keyset pagination over the entries in the given categories, ordered by download id.
+     * Pass the last id of the previous page as {@code afterId} to get the next one.
+     *
+     * Failures are not swallowed, an empty page always means there is nothing left to read.
+     *
+     * @param includeUncategorized whether entries that never got a category should be included.
+     */
+    public List<QueueEntryEntity> getPage(Collection<QueueCategoryEnum> categories,
+        boolean includeUncategorized, long afterId, int limit) {
+        try (EntityManager em = getEmf().createEntityManager()) {
+            String jpql = "SELECT e FROM QueueEntryEntity e"
+                + " WHERE e.downloadId > :afterId"
+                + " AND (e.currentQueueCategory IN :categories"
+                + (includeUncategorized ? " OR e.currentQueueCategory IS NULL)" : ")")
+                + " ORDER BY e.downloadId";
+
+            TypedQuery<QueueEntryEntity> query = em.createQuery(jpql, QueueEntryEntity.class)
+                .setParameter("afterId", afterId)
+                .setParameter("categories", categories)
+                .setMaxResults(limit);
+
+            // Load the eager relations of the whole page in one query each, instead of one per entry
+            query.setHint(QueryHints.BATCH_TYPE, BatchFetchType.IN);
+            query.setHint(QueryHints.BATCH, "e.mediaInfo");
+            query.setHint(QueryHints.BATCH, "e.downloaderBlacklist");
+            query.setHint(QueryHints.BATCH, "e.finalMediaFilePaths");
+            query.setHint(QueryHints.BATCH, "e.lastCommandLine");
+
+            return query.getResultList();
+        }
+    }
 }
@@ -91,6 +91,9 @@ public class Settings {
     @JsonProperty("DownloadYoutubeChannels")
     private boolean downloadYoutubeChannels = false;
 
+    @JsonProperty("ExpandPlaylists")
+    private boolean expandPlaylists = false;
+
     @JsonProperty("RecordToDownloadArchive")
     private boolean recordToDownloadArchive = false;
 
@@ -133,6 +136,9 @@ public class Settings {
     @JsonProperty("FontSize")
     private int fontSize = 14;
 
+    @JsonProperty("MediaCardRefreshRate")
+    private int mediaCardRefreshRate = 30;
+
     @JsonProperty("UseSystemFont")
     private boolean useSystemFont = false;
 
@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.settings.filters;
+
+import jakarta.annotation.Nullable;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the first filter, in settings order, whose url regex matches a given url, without running every regex.
+ *
+ * Filters whose regex follows the layout of the built-in ones, an optional scheme, an optional subdomain
+ * and then a literal host such as {@code ^(https?:\/\/)?(www\.)?(youtube\.com|youtu\.be)...}, are indexed
+ * by that host. A url is only checked against the filters indexed under a host it starts with, right after
+ * its scheme or its first label, and against every filter with any other layout. The result is always the
+ * same as checking every filter in order.
+ *
+ * Instances are immutable snapshots of the filter list, build a new one whenever the filters change.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+public final class UrlFilterDispatcher {
+
+    // Upper bound on hosts produced by expanding groups like (a|b)\.(c|d)
+    private static final int MAX_HOSTS = 16;
+
+    // Optional anchor and scheme, then an optional single-label subdomain group such as (www\.)?,
+    // (www\.|old\.)? or (([a-zA-Z0-9-]+)\.)?, then the host itself. None of these can match a '.' or '/'
+    // before the host, which is what lets lookups only try a couple of positions per url.
+    private static final String SCHEME
+        = "(?:\\(https\\?:\\\\/\\\\/\\)\\?|\\(https\\?://\\)\\?|https\\?:\\\\/\\\\/|https\\?://)?";
+    private static final String CHAR_CLASS = "\\[(?:[a-zA-Z0-9]-[a-zA-Z0-9]|[a-zA-Z0-9_])++-?\\]";
+    private static final String LABEL = "(?:[a-zA-Z0-9_-]++|" + CHAR_CLASS + "\\+|\\(" + CHAR_CLASS + "\\+\\))";
+    private static final String SUBDOMAIN = "(?:\\(" + LABEL + "\\\\\\.(?:\\|" + LABEL + "\\\\\\.)*+\\)\\?)?";
+    private static final String HOST_LITERAL = "(?:[a-zA-Z0-9-]|\\\\\\.)++";
+    private static final String HOST = "((?:" + HOST_LITERAL + "|\\(" + HOST_LITERAL + "(?:\\|" + HOST_LITERAL + ")*+\\))++)";
+
+    private static final Pattern HOST_LAYOUT = Pattern.compile("\\^?" + SCHEME + SUBDOMAIN + HOST);
+    private static final Pattern HOST_TOKEN = Pattern.compile("\\(([^()]*)\\)|((?:[a-zA-Z0-9-]|\\\\\\.)+)");
+
+    private final List<AbstractUrlFilter> filters;
+
+    // Filters that have to be evaluated for every url
+    private final BitSet unindexed = new BitSet();
+
+    private final Map<String, BitSet> hostIndex = new HashMap<>();
+    private final int[] hostLengths;
+
+    @Nullable
+    private final AbstractUrlFilter genericFilter;
+
+    public UrlFilterDispatcher(List<AbstractUrlFilter> filtersIn) {
+        filters = List.copyOf(filtersIn);
+
+        AbstractUrlFilter generic = null;
+        Set<Integer> lengths = new TreeSet<>();
+
+        for (int i = 0; i < filters.size(); i++) {
+            AbstractUrlFilter filter = filters.get(i);
+
+            if (generic == null && filter.getId().equals(GenericFilter.ID)) {
+                generic = filter;
+            }
+
+            if (filter.getUrlRegex().isEmpty()) {
+                // Never matches anything
+                continue;
+            }
+
+            Optional<Set<String>> hosts = getIndexedHosts(filter.getUrlRegex());
+            if (hosts.isEmpty()) {
+                unindexed.set(i);
+                continue;
+            }
+
+            for (String host : hosts.get()) {
+                hostIndex.computeIfAbsent(host, h -> new BitSet()).set(i);
+                lengths.add(host.length());
+            }
+        }
+
+        genericFilter = generic;
+        hostLengths = lengths.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return the first filter matching the url, in the order filters were given.
+     */
+    public Optional<AbstractUrlFilter> match(String url) {
+        BitSet candidates = (BitSet)unindexed.clone();
+
+        // Indexed regexes allow but do not require a scheme, so the host may also start right at the beginning
+        addFiltersAt(url, 0, candidates);
+
+        int schemeEnd = url.startsWith("https://") ? 8 : url.startsWith("http://") ? 7 : 0;
+        if (schemeEnd > 0) {
+            addFiltersAt(url, schemeEnd, candidates);
+        }
+
+        // Past an optional subdomain, which is always a single label. A scheme has no dots, so this is the
+        // same position whether or not the regex consumed it.
+        int dot = url.indexOf('.', schemeEnd);
+        if (dot > schemeEnd) {
+            addFiltersAt(url, dot + 1, candidates);
+        }
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            AbstractUrlFilter filter = filters.get(i);
+
+            if (filter.matches(url)) {
+                return Optional.of(filter);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private void addFiltersAt(String url, int position, BitSet candidates) {
+        for (int length : hostLengths) {
+            if (position + length > url.length()) {
+                return;
+            }
+
+            BitSet indexed = hostIndex.get(url.substring(position, position + length));
+            if (indexed != null) {
+                candidates.or(indexed);
+            }
+        }
+    }
+
+    public Optional<AbstractUrlFilter> getGenericFilter() {
+        return Optional.ofNullable(genericFilter);
+    }
+
+    public int getIndexedCount() {
+        return filters.size() - unindexed.cardinality();
+    }
+
+    /**
+     * Derives the hosts a filter regex can be indexed by, such that every url it matches starts with one of
+     * them, optionally preceded by a scheme and a single subdomain label.
+     *
+     * @return the hosts, or an empty optional if the regex does not follow that layout and cannot be indexed.
+     */
+    public static Optional<Set<String>> getIndexedHosts(String regex) {
+        Matcher matcher = HOST_LAYOUT.matcher(regex);
+        if (!matcher.lookingAt() || !isPlainRemainder(regex, matcher.end())) {
+            return Optional.empty();
+        }
+
+        Set<String> hosts = Set.of("");
+
+        Matcher tokens = HOST_TOKEN.matcher(matcher.group(1));
+        while (tokens.find()) {
+            String group = tokens.group(1);
+            String[] alternatives = group != null ? group.split("\\|", -1) : new String[]{tokens.group(2)};
+
+            if (hosts.size() * alternatives.length > MAX_HOSTS) {
+                return Optional.empty();
+            }
+
+            Set<String> next = new LinkedHashSet<>();
+            for (String prefix : hosts) {
+                for (String alternative : alternatives) {
+                    next.add(prefix + alternative.replace("\\.", "."));
+                }
+            }
+
+            hosts = next;
+        }
+
+        if (hosts.contains("")) {
+            return Optional.empty();
+        }
+
+        return Optional.of(hosts);
+    }
+
+    /**
+     * Whether what follows the host can only ever extend it, that is, it does not start with a quantifier
+     * applying to the host and has no top-level alternation.
+     */
+    private static boolean isPlainRemainder(String regex, int start) {
+        if (start < regex.length() && "?*+{".indexOf(regex.charAt(start)) >= 0) {
+            return false;
+        }
+
+        int depth = 0;
+        int classDepth = 0;
+
+        for (int i = start; i < regex.length(); i++) {
+            char ch = regex.charAt(i);
+
+            if (ch == '\\') {
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == 'Q') {
+                    int end = regex.indexOf("\\E", i + 2);
+                    if (end == -1) {
+                        return true;
+                    }
+
+                    i = end + 1;
+                } else {
+                    i++;
+                }
+            } else if (ch == '[') {
+                classDepth++;
+            } else if (ch == ']' && classDepth > 0) {
+                classDepth--;
+            } else if (classDepth > 0) {
+                continue;
+            } else if (ch == '(') {
+                depth++;
+            } else if (ch == ')') {
+                if (--depth < 0) {
+                    return false;
+                }
+            } else if (ch == '|' && depth == 0) {
+                return false;
+            }
+        }
+
+        return depth == 0 && classDepth == 0;
+    }
+}
@@ -83,7 +83,7 @@ public final class GUIManager {
 
     @Getter
     private JFrame appWindow;
-    private JPanel queuePanel;
+    private CustomVirtualListPanel<MediaCard> queuePanel;
 
     @Getter
     private JScrollPane queueScrollPane;
@@ -95,6 +95,13 @@ public final class GUIManager {
     private final AtomicLong lastMediaCardQueueUpdate = new AtomicLong();
     private final Queue<MediaCardUIUpdateEntry> mediaCardUIUpdateQueue = new ConcurrentLinkedQueue<>();
     private final Map<Integer, MediaCard> mediaCards = new ConcurrentHashMap<>();
+    // Keyed by id, MediaCard's equals/hashCode covers its mutable state
+    private final Map<Integer, MediaCard> dirtyMediaCards = new ConcurrentHashMap<>();
+
+    // Recomputed on the EDT whenever the queue viewport changes, read from anywhere
+    private volatile Set<Integer> visibleMediaCardIds = Set.of();
+
+    private final Timer mediaCardFrameTimer;
 
     private final AtomicInteger mediaCardId = new AtomicInteger();
 
@@ -128,6 +135,10 @@ public final class GUIManager {
 
         Timer mediaCardQueueTimer = new Timer(50, e -> processMediaCardQueue());
         mediaCardQueueTimer.start();
+
+        mediaCardFrameTimer = new Timer(getMediaCardFrameDelay(), e -> flushDirtyMediaCards());
+        mediaCardFrameTimer.setCoalesce(true);
+        mediaCardFrameTimer.start();
     }
 
     public String getCurrentAppIconPath() {
@@ -264,8 +275,7 @@ public final class GUIManager {
             headerPanel.add(createToolbar(), BorderLayout.SOUTH);
             mainPanel.add(headerPanel, BorderLayout.NORTH);
 
-            queuePanel = new JPanel();
-            queuePanel.setLayout(new BoxLayout(queuePanel, BoxLayout.Y_AXIS));
+            queuePanel = new CustomVirtualListPanel<>(new MediaCardRowBinder(), getMediaCardRowHeight());
             queuePanel.setBackground(color(BACKGROUND));
             queuePanel.addMouseListener(mouseAdapter);
 
@@ -276,7 +286,7 @@ public final class GUIManager {
             // Drag source used to listen for DnD URLs. The constructor itself assigns it to appWindow.
             DropTarget dropTarget = new DropTarget(appWindow, new WindowDropTargetListener(this));
 
-            queuePanel.add(getOrCreateEmptyQueuePanel(), BorderLayout.CENTER);
+            queuePanel.setEmptyComponent(getOrCreateEmptyQueuePanel());
             updateQueuePanelMessage();
 
             queueScrollPane = new JScrollPane(queuePanel);
@@ -289,6 +299,10 @@ public final class GUIManager {
             queueScrollPane.getVerticalScrollBar().setUnitIncrement(8);
             queueScrollPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
             queueScrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
+            queueScrollPane.getViewport().addChangeListener(e -> {
+                queuePanel.updateRows();
+                updateVisibleMediaCards();
+            });
             mainPanel.add(queueScrollPane, BorderLayout.CENTER);
 
             InputMap inputMap = queuePanel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
@@ -1024,12 +1038,92 @@ public final class GUIManager {
 
         for (MediaCard card : mediaCards.values()) {
             card.adjustScale(appWindow.getWidth());
+            // Relayout happens right below, don't wait for the next frame
+            card.flushUI();
         }
 
+        queuePanel.setRowHeight(getMediaCardRowHeight());
         queuePanel.revalidate();
         queuePanel.repaint();
     }
 
+    private int getMediaCardFrameDelay() {
+        int refreshRate = Math.clamp(main.getConfig().getMediaCardRefreshRate(), 1, 120);
+
+        return 1000 / refreshRate;
+    }
+
+    /**
+     * Paints the pending changes of all visible media cards in a single EDT pass.
+     * Off-screen cards stay dirty until they are scrolled into view, cards without a row are
+     * dropped since binding one paints their whole state anyway.
+     */
+    private void flushDirtyMediaCards() {
+        assert SwingUtilities.isEventDispatchThread();
+
+        int frameDelay = getMediaCardFrameDelay();
+        if (mediaCardFrameTimer.getDelay() != frameDelay) {
+            mediaCardFrameTimer.setDelay(frameDelay);
+        }
+
+        if (queuePanel == null || dirtyMediaCards.isEmpty()
+            || appWindow == null || !appWindow.isShowing()) {
+            return;
+        }
+
+        Rectangle visibleRect = queuePanel.getVisibleRect();
+
+        Iterator<MediaCard> iterator = dirtyMediaCards.values().iterator();
+        while (iterator.hasNext()) {
+            MediaCard mediaCard = iterator.next();
+
+            if (mediaCard.isClosed()) {
+                iterator.remove();
+                continue;
+            }
+
+            CustomMediaCardUI ui = mediaCard.getUi();
+            if (ui == null) {
+                iterator.remove();
+                continue;
+            }
+
+            if (!ui.getCard().getBounds().intersects(visibleRect)) {
+                continue;
+            }
+
+            iterator.remove();
+            mediaCard.flushUI();
+        }
+    }
+
+    private void updateVisibleMediaCards() {
+        assert SwingUtilities.isEventDispatchThread();
+
+        if (queuePanel == null) {
+            return;
+        }
+
+        Rectangle visibleRect = queuePanel.getVisibleRect();
+
+        Set<Integer> visible = new HashSet<>();
+        for (MediaCard mediaCard : queuePanel.getBoundItems()) {
+            CustomMediaCardUI ui = mediaCard.getUi();
+            if (ui != null && ui.getCard().getBounds().intersects(visibleRect)) {
+                visible.add(mediaCard.getId());
+            }
+        }
+
+        visibleMediaCardIds = Collections.unmodifiableSet(visible);
+    }
+
+    /**
+     * Whether the card was within the queue viewport the last time it moved. Safe to call off the EDT.
+     */
+    public boolean isMediaCardVisible(int id) {
+        return visibleMediaCardIds.contains(id);
+    }
+
     private void processMediaCardQueue() {
         if (queuePanel == null
             || mediaCardUIUpdateQueue.isEmpty()
@@ -1050,311 +1144,336 @@ public final class GUIManager {
             boolean scrollToBottom = false;
 
             try {
-                int count = 0;
-                while (!mediaCardUIUpdateQueue.isEmpty()) {
-                    if (++count == 256) {// Process in batches of 255 items every 100ms
-                        break;
-                    }
+                // Cards only get components once they scroll into view, so the whole backlog fits in one pass
+                List<MediaCard> removedCards = new ArrayList<>();
 
-                    MediaCardUIUpdateEntry entry = mediaCardUIUpdateQueue.poll();
-                    if (entry != null) {
-                        MediaCard mediaCard = entry.getMediaCard();
-
-                        if (entry.getUpdateType() == CARD_ADD) {
-                            JPanel card = new JPanel() {
-                                @Override
-                                protected void paintComponent(Graphics g) {
-                                    Graphics2D g2d = (Graphics2D)g.create();
-
-                                    int arcSize = 10;
-                                    g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                                    g2d.setColor(getBackground());
-                                    g2d.fillRoundRect(5, 5, getWidth() - 10, getHeight() - 10, arcSize, arcSize);
-
-                                    g2d.dispose();
-                                }
-
-                                @Override
-                                public Dimension getMaximumSize() {
-                                    int availableWidth = appWindow.getWidth() - getInsets().left - getInsets().right;
-                                    return new Dimension(availableWidth, super.getMaximumSize().height);
-                                }
-                            };
-
-                            card.setOpaque(false);
-                            card.setLayout(new GridBagLayout());
-                            card.setBorder(BorderFactory.createLineBorder(color(BACKGROUND), 5));
-                            card.setBackground(color(MEDIA_CARD));
-
-                            int fontSize = main.getConfig().getFontSize();
-                            Dimension cardDimension = new Dimension(Integer.MAX_VALUE, fontSize >= 15 ? 150 + (fontSize - 15) * 3 : 135);
-                            card.setMaximumSize(cardDimension);
-
-                            GridBagConstraints gbc = new GridBagConstraints();
-                            gbc.insets = new Insets(10, 10, 10, 10);
-                            gbc.fill = GridBagConstraints.BOTH;
-
-                            // Dragidy-draggy-nub-thingy
-                            JPanel dragPanel = new JPanel(new BorderLayout());
-                            dragPanel.setPreferredSize(new Dimension(24, 24));
-                            dragPanel.setMinimumSize(new Dimension(24, 24));
-                            dragPanel.setMaximumSize(new Dimension(24, 24));
-                            dragPanel.setBackground(new Color(0, 0, 0, 0));
-
-                            ImageIcon dragIcon = loadIcon("/assets/drag.png", ICON, 24);
-                            JLabel dragLabel = new JLabel(dragIcon);
-                            dragLabel.setHorizontalAlignment(SwingConstants.CENTER);
-                            dragPanel.add(dragLabel, BorderLayout.CENTER);
-
-                            gbc.gridx = 0;
-                            gbc.gridy = 0;
-                            gbc.gridheight = 2;
-                            gbc.weightx = 0;
-                            gbc.weighty = 0;
-                            card.add(dragPanel, gbc);
-
-                            // Thumbnail
-                            CustomThumbnailPanel thumbnailPanel = new CustomThumbnailPanel();
-                            thumbnailPanel.setPreferredSize(new Dimension(
-                                CustomMediaCardUI.THUMBNAIL_WIDTH, CustomMediaCardUI.THUMBNAIL_HEIGHT));
-                            thumbnailPanel.setMinimumSize(new Dimension(
-                                CustomMediaCardUI.THUMBNAIL_WIDTH, CustomMediaCardUI.THUMBNAIL_HEIGHT));
-                            thumbnailPanel.setBackground(color(MEDIA_CARD_THUMBNAIL));
-                            thumbnailPanel.setPlaceholderIcon(DownloadTypeEnum.ALL);
-
-                            gbc.insets = new Insets(10, 0, 10, 0);
-                            gbc.gridx = 1;
-                            gbc.gridy = 0;
-                            gbc.gridheight = 2;
-                            gbc.weightx = 0;
-                            gbc.weighty = 0;
-                            card.add(thumbnailPanel, gbc);
-
-                            CustomDynamicLabel mediaNameLabel = new CustomDynamicLabel();
-                            mediaNameLabel.setForeground(color(FOREGROUND));
-                            gbc.insets = new Insets(10, 10, 5, 10);
-                            gbc.gridx = 2;
-                            gbc.gridy = 0;
-                            gbc.gridheight = 1;
-                            gbc.weightx = 1;
-                            gbc.fill = GridBagConstraints.HORIZONTAL;
-                            gbc.weighty = 0;
-                            card.add(mediaNameLabel, gbc);
-
-                            appWindow.addComponentListener(mediaNameLabel.getListener());
-
-                            CustomProgressBar progressBar = new CustomProgressBar(Color.WHITE);
-                            progressBar.setValue(100);
-                            progressBar.setStringPainted(true);
-                            progressBar.setString(l10n("enums.download_status.queued"));
-                            progressBar.setForeground(Color.GRAY);
-                            progressBar.setBackground(Color.GRAY);
-                            //progressBar.setBorderPainted(false);
-                            progressBar.setMaximumSize(new Dimension(Integer.MAX_VALUE, 15));
-
-                            gbc.insets = new Insets(10, 10, 10, 10);
-                            gbc.gridx = 2;
-                            gbc.gridy = 1;
-                            gbc.weightx = 1;
-                            gbc.weighty = 0;
-                            gbc.fill = GridBagConstraints.BOTH;
-                            card.add(progressBar, gbc);
-
-                            JButton closeButton = createIconButton(
-                                loadIcon("/assets/x-mark.png", ICON, 16),
-                                loadIcon("/assets/x-mark.png", ICON_CLOSE, 16),
-                                "gui.remove_from_queue.tooltip",
-                                e -> {
-                                    if (isMediaCardSelected(mediaCard.getId())) {
-                                        deleteSelectedMediaCards();
-                                    }
-
-                                    removeMediaCard(mediaCard.getId(), CloseReasonEnum.MANUAL);
-                                }
-                            );
-                            closeButton.setPreferredSize(new Dimension(16, 16));
-
-                            gbc.gridx = 3;
-                            gbc.gridy = 0;
-                            gbc.gridheight = 2;
-                            gbc.weightx = 0;
-                            gbc.weighty = 0;
-                            gbc.anchor = GridBagConstraints.CENTER;
-                            card.add(closeButton, gbc);
-
-                            card.setTransferHandler(new WindowTransferHandler(this));
-
-                            MouseAdapter listener = new MouseAdapter() {
-                                private long lastClick = System.currentTimeMillis();
-
-                                @Override
-                                public void mousePressed(MouseEvent e) {
-                                    if (isMultiSelectMode.get() && selectedMediaCards.size() > 1) {
-                                        return;
-                                    }
-
-                                    Component component = e.getComponent();
-
-                                    if (component.equals(dragLabel)) {
-                                        TransferHandler handler = card.getTransferHandler();
-
-                                        if (handler != null) {// peace of mind
-                                            handler.exportAsDrag(card, e, TransferHandler.MOVE);
-                                        }
-                                    }
-                                }
-
-                                @Override
-                                public void mouseClicked(MouseEvent e) {
-                                    if (SwingUtilities.isLeftMouseButton(e)) {
-                                        MediaCard lastCard = lastSelectedMediaCard.get();
-
-                                        int cardId = mediaCard.getId();
-
-                                        if (e.isControlDown()) {
-                                            isMultiSelectMode.set(true);
-
-                                            if (selectedMediaCards.contains(cardId)) {
-                                                selectedMediaCards.remove(cardId);
-                                            } else {
-                                                selectedMediaCards.add(cardId);
-                                            }
-
-                                            updateMediaCardSelectionState();
-                                        } else if (e.isShiftDown() && lastCard != null) {
-                                            isMultiSelectMode.set(true);
-
-                                            selectMediaCardRange(lastCard, mediaCard);
-                                        } else {
-                                            if (e.getClickCount() == 2) {
-                                                if (mediaCard.getOnLeftClick() != null && (System.currentTimeMillis() - lastClick) > 50) {
-                                                    mediaCard.getOnLeftClick().run();
-
-                                                    lastClick = System.currentTimeMillis();
-                                                }
-                                            }
-
-                                            selectedMediaCards.replaceAll(Collections.singletonList(cardId));
-                                            lastSelectedMediaCard.set(mediaCard);
-
-                                            updateMediaCardSelectionState();
-                                        }
-                                    } else if (SwingUtilities.isRightMouseButton(e)) {
-                                        List<RightClickMenuEntries> dependents = new ArrayList<>();
-
-                                        if (isMediaCardSelected(mediaCard)) {
-                                            for (int cardId : selectedMediaCards) {
-                                                MediaCard selected = mediaCards.get(cardId);
-                                                if (selected == null) {
-                                                    log.error("Cannot find media card, id {}", cardId);
-                                                    continue;
-                                                }
-
-                                                if (selected == mediaCard) {
-                                                    continue;
-                                                }
-
-                                                dependents.add(RightClickMenuEntries.fromMap(selected.getRightClickMenu()));
-                                            }
-                                        }
-
-                                        showRightClickMenu(card, RightClickMenuEntries.fromMap(mediaCard.getRightClickMenu()),
-                                            dependents, e.getX(), e.getY());
-                                    }
-                                }
-
-                                @Override
-                                public void mouseEntered(MouseEvent e) {
-                                    if (!isMediaCardSelected(mediaCard) && !isMultiSelectMode.get()) {
-                                        card.setBackground(color(MEDIA_CARD_HOVER));
-                                    }
-                                }
-
-                                @Override
-                                public void mouseExited(MouseEvent e) {
-                                    if (!isMediaCardSelected(mediaCard) && !isMultiSelectMode.get()) {
-                                        card.setBackground(color(MEDIA_CARD));
-                                    }
-                                }
-                            };
-
-                            card.addMouseListener(listener);
-                            dragLabel.addMouseListener(listener);
-                            mediaNameLabel.addMouseListener(listener);
-
-                            card.putClientProperty("MEDIA_CARD", mediaCard);
-
-                            mediaCard.setUi(new CustomMediaCardUI(
-                                card, cardDimension, mediaNameLabel, thumbnailPanel, progressBar
-                            ));
-
-                            queuePanel.remove(getOrCreateEmptyQueuePanel());
-                            queuePanel.add(card);
-
-                            scrollToBottom = true;
-                        } else if (entry.getUpdateType() == CARD_REMOVE) {
-                            CustomMediaCardUI ui = mediaCard.getUi();
-                            if (ui != null) {
-                                try {
-                                    if (mediaCards.isEmpty()) {
-                                        queuePanel.removeAll();
-
-                                        queuePanel.add(getOrCreateEmptyQueuePanel(), BorderLayout.CENTER);
-                                    } else {
-                                        queuePanel.remove(ui.getCard());
-                                    }
-
-                                    appWindow.removeComponentListener(ui.getMediaNameLabel().getListener());
-                                } catch (StackOverflowError e) {
-                                    // Decades-old AWT issue. We should not have to raise the stack limit for this.
-                                    // AWTEventMulticaster.remove(AWTEventMulticaster.java:153)
-                                    // AWTEventMulticaster.removeInternal(AWTEventMulticaster.java:983)
-                                    // Rinse and repeat ∞
-                                    GDownloader.handleException(e, "StackOverflowError when calling remove() or removeComponentListener().");
-                                }
-                            }
-                        }
+                MediaCardUIUpdateEntry entry;
+                while ((entry = mediaCardUIUpdateQueue.poll()) != null) {
+                    MediaCard mediaCard = entry.getMediaCard();
+
+                    if (entry.getUpdateType() == CARD_ADD) {
+                        queuePanel.addItem(mediaCard);
+
+                        scrollToBottom = true;
+                    } else if (entry.getUpdateType() == CARD_REMOVE) {
+                        removedCards.add(mediaCard);
                     }
                 }
+
+                // A card is never added again once removed, so removals can all be applied after the adds
+                queuePanel.removeItems(removedCards);
             } finally {
                 lastMediaCardQueueUpdate.set(System.currentTimeMillis());
                 currentlyUpdatingMediaCards.set(false);
 
-                if (mediaCardUIUpdateQueue.isEmpty()) {
-                    queuePanel.setIgnoreRepaint(false);
+                queuePanel.setIgnoreRepaint(false);
 
-                    queuePanel.revalidate();
-                    queuePanel.repaint();
+                queuePanel.revalidate();
+                queuePanel.repaint();
 
-                    if (!appWindow.isVisible()) {
-                        appWindow.setVisible(true);
-                    }
+                if (!appWindow.isVisible()) {
+                    appWindow.setVisible(true);
                 }
 
                 if (main.getConfig().isAutoScrollToBottom() && scrollToBottom) {
                     scrollToBottom(queueScrollPane);
                 }
+            }
+        });
+    }
+
+    private int getMediaCardBaseHeight() {
+        int fontSize = main.getConfig().getFontSize();
+
+        return fontSize >= 15 ? 150 + (fontSize - 15) * 3 : 135;
+    }
+
+    private int getMediaCardRowHeight() {
+        return (int)(getMediaCardBaseHeight() * MediaCard.getScaleFactor(appWindow.getWidth()));
+    }
+
+    @Nullable
+    private static MediaCard getBoundMediaCard(JComponent row) {
+        return (MediaCard)row.getClientProperty("MEDIA_CARD");
+    }
+
+    /**
+     * Builds an unbound row for the queue. Rows are recycled between cards as the queue scrolls,
+     * so listeners always look up the card currently bound to it.
+     */
+    private CustomMediaCardUI createMediaCardRow() {
+        JPanel card = new JPanel() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                Graphics2D g2d = (Graphics2D)g.create();
+
+                int arcSize = 10;
+                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2d.setColor(getBackground());
+                g2d.fillRoundRect(5, 5, getWidth() - 10, getHeight() - 10, arcSize, arcSize);
+
+                g2d.dispose();
+            }
+        };
+
+        card.setOpaque(false);
+        card.setLayout(new GridBagLayout());
+        card.setBorder(BorderFactory.createLineBorder(color(BACKGROUND), 5));
+        card.setBackground(color(MEDIA_CARD));
+
+        Dimension cardDimension = new Dimension(Integer.MAX_VALUE, getMediaCardBaseHeight());
+        card.setMaximumSize(cardDimension);
+
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(10, 10, 10, 10);
+        gbc.fill = GridBagConstraints.BOTH;
+
+        // Dragidy-draggy-nub-thingy
+        JPanel dragPanel = new JPanel(new BorderLayout());
+        dragPanel.setPreferredSize(new Dimension(24, 24));
+        dragPanel.setMinimumSize(new Dimension(24, 24));
+        dragPanel.setMaximumSize(new Dimension(24, 24));
+        dragPanel.setBackground(new Color(0, 0, 0, 0));
+
+        ImageIcon dragIcon = loadIcon("/assets/drag.png", ICON, 24);
+        JLabel dragLabel = new JLabel(dragIcon);
+        dragLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        dragPanel.add(dragLabel, BorderLayout.CENTER);
+
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        gbc.gridheight = 2;
+        gbc.weightx = 0;
+        gbc.weighty = 0;
+        card.add(dragPanel, gbc);
+
+        // Thumbnail
+        CustomThumbnailPanel thumbnailPanel = new CustomThumbnailPanel();
+        thumbnailPanel.setPreferredSize(new Dimension(
+            CustomMediaCardUI.THUMBNAIL_WIDTH, CustomMediaCardUI.THUMBNAIL_HEIGHT));
+        thumbnailPanel.setMinimumSize(new Dimension(
+            CustomMediaCardUI.THUMBNAIL_WIDTH, CustomMediaCardUI.THUMBNAIL_HEIGHT));
+        thumbnailPanel.setBackground(color(MEDIA_CARD_THUMBNAIL));
+        thumbnailPanel.setPlaceholderIcon(DownloadTypeEnum.ALL);
+
+        gbc.insets = new Insets(10, 0, 10, 0);
+        gbc.gridx = 1;
+        gbc.gridy = 0;
+        gbc.gridheight = 2;
+        gbc.weightx = 0;
+        gbc.weighty = 0;
+        card.add(thumbnailPanel, gbc);
+
+        CustomDynamicLabel mediaNameLabel = new CustomDynamicLabel();
+        mediaNameLabel.setForeground(color(FOREGROUND));
+        gbc.insets = new Insets(10, 10, 5, 10);
+        gbc.gridx = 2;
+        gbc.gridy = 0;
+        gbc.gridheight = 1;
+        gbc.weightx = 1;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weighty = 0;
+        card.add(mediaNameLabel, gbc);
+
+        // Rows live as long as the window does, so this is never removed
+        appWindow.addComponentListener(mediaNameLabel.getListener());
+
+        CustomProgressBar progressBar = new CustomProgressBar(Color.WHITE);
+        progressBar.setValue(100);
+        progressBar.setStringPainted(true);
+        progressBar.setString(l10n("enums.download_status.queued"));
+        progressBar.setForeground(Color.GRAY);
+        progressBar.setBackground(Color.GRAY);
+        //progressBar.setBorderPainted(false);
+        progressBar.setMaximumSize(new Dimension(Integer.MAX_VALUE, 15));
+
+        gbc.insets = new Insets(10, 10, 10, 10);
+        gbc.gridx = 2;
+        gbc.gridy = 1;
+        gbc.weightx = 1;
+        gbc.weighty = 0;
+        gbc.fill = GridBagConstraints.BOTH;
+        card.add(progressBar, gbc);
+
+        JButton closeButton = createIconButton(
+            loadIcon("/assets/x-mark.png", ICON, 16),
+            loadIcon("/assets/x-mark.png", ICON_CLOSE, 16),
+            "gui.remove_from_queue.tooltip",
+            e -> {
+                MediaCard mediaCard = getBoundMediaCard(card);
+                if (mediaCard == null) {
+                    return;
+                }
 
-                int currentMode = queueScrollPane.getViewport().getScrollMode();
-                if (queuePanel.getComponentCount() > 100 && currentMode != JViewport.BACKINGSTORE_SCROLL_MODE) {
-                    queueScrollPane.getViewport().setScrollMode(JViewport.BACKINGSTORE_SCROLL_MODE);
-                } else if (currentMode != JViewport.SIMPLE_SCROLL_MODE) {
-                    queueScrollPane.getViewport().setScrollMode(JViewport.SIMPLE_SCROLL_MODE);
+                if (isMediaCardSelected(mediaCard.getId())) {
+                    deleteSelectedMediaCards();
                 }
+
+                removeMediaCard(mediaCard.getId(), CloseReasonEnum.MANUAL);
             }
-        });
+        );
+        closeButton.setPreferredSize(new Dimension(16, 16));
+
+        gbc.gridx = 3;
+        gbc.gridy = 0;
+        gbc.gridheight = 2;
+        gbc.weightx = 0;
+        gbc.weighty = 0;
+        gbc.anchor = GridBagConstraints.CENTER;
+        card.add(closeButton, gbc);
+
+        card.setTransferHandler(new WindowTransferHandler(this));
+
+        MouseAdapter listener = new MouseAdapter() {
+            private long lastClick = System.currentTimeMillis();
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (isMultiSelectMode.get() && selectedMediaCards.size() > 1) {
+                    return;
+                }
+
+                Component component = e.getComponent();
+
+                if (component.equals(dragLabel)) {
+                    TransferHandler handler = card.getTransferHandler();
+
+                    if (handler != null) {// peace of mind
+                        handler.exportAsDrag(card, e, TransferHandler.MOVE);
+                    }
+                }
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                MediaCard mediaCard = getBoundMediaCard(card);
+                if (mediaCard == null) {
+                    return;
+                }
+
+                if (SwingUtilities.isLeftMouseButton(e)) {
+                    MediaCard lastCard = lastSelectedMediaCard.get();
+
+                    int cardId = mediaCard.getId();
+
+                    if (e.isControlDown()) {
+                        isMultiSelectMode.set(true);
+
+                        if (selectedMediaCards.contains(cardId)) {
+                            selectedMediaCards.remove(cardId);
+                        } else {
+                            selectedMediaCards.add(cardId);
+                        }
+
+                        updateMediaCardSelectionState();
+                    } else if (e.isShiftDown() && lastCard != null) {
+                        isMultiSelectMode.set(true);
+
+                        selectMediaCardRange(lastCard, mediaCard);
+                    } else {
+                        if (e.getClickCount() == 2) {
+                            if (mediaCard.getOnLeftClick() != null && (System.currentTimeMillis() - lastClick) > 50) {
+                                mediaCard.getOnLeftClick().run();
+
+                                lastClick = System.currentTimeMillis();
+                            }
+                        }
+
+                        selectedMediaCards.replaceAll(Collections.singletonList(cardId));
+                        lastSelectedMediaCard.set(mediaCard);
+
+                        updateMediaCardSelectionState();
+                    }
+                } else if (SwingUtilities.isRightMouseButton(e)) {
+                    List<RightClickMenuEntries> dependents = new ArrayList<>();
+
+                    if (isMediaCardSelected(mediaCard)) {
+                        for (int cardId : selectedMediaCards) {
+                            MediaCard selected = mediaCards.get(cardId);
+                            if (selected == null) {
+                                log.error("Cannot find media card, id {}", cardId);
+                                continue;
+                            }
+
+                            if (selected == mediaCard) {
+                                continue;
+                            }
+
+                            dependents.add(RightClickMenuEntries.fromMap(selected.getRightClickMenu()));
+                        }
+                    }
+
+                    showRightClickMenu(card, RightClickMenuEntries.fromMap(mediaCard.getRightClickMenu()),
+                        dependents, e.getX(), e.getY());
+                }
+            }
+
+            @Override
+            public void mouseEntered(MouseEvent e) {
+                MediaCard mediaCard = getBoundMediaCard(card);
+                if (mediaCard != null && !isMediaCardSelected(mediaCard) && !isMultiSelectMode.get()) {
+                    card.setBackground(color(MEDIA_CARD_HOVER));
+                }
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                MediaCard mediaCard = getBoundMediaCard(card);
+                if (mediaCard != null && !isMediaCardSelected(mediaCard) && !isMultiSelectMode.get()) {
+                    card.setBackground(color(MEDIA_CARD));
+                }
+            }
+        };
+
+        card.addMouseListener(listener);
+        dragLabel.addMouseListener(listener);
+        mediaNameLabel.addMouseListener(listener);
+
+        CustomMediaCardUI ui = new CustomMediaCardUI(
+            card, cardDimension, mediaNameLabel, thumbnailPanel, progressBar
+        );
+
+        card.putClientProperty("MEDIA_CARD_UI", ui);
+
+        return ui;
     }
 
     public MediaCard addMediaCard(String... mediaLabel) {
+        MediaCard mediaCard = createMediaCard(mediaLabel);
+
+        mediaCardUIUpdateQueue.add(new MediaCardUIUpdateEntry(CARD_ADD, mediaCard));
+
+        return mediaCard;
+    }
+
+    /**
+     * Creates one card per label and hands them to the UI queue together, in order.
+     */
+    public List<MediaCard> addMediaCards(List<String> mediaLabels) {
+        List<MediaCard> cards = new ArrayList<>(mediaLabels.size());
+        List<MediaCardUIUpdateEntry> updates = new ArrayList<>(mediaLabels.size());
+
+        for (String mediaLabel : mediaLabels) {
+            MediaCard mediaCard = createMediaCard(mediaLabel);
+
+            cards.add(mediaCard);
+            updates.add(new MediaCardUIUpdateEntry(CARD_ADD, mediaCard));
+        }
+
+        mediaCardUIUpdateQueue.addAll(updates);
+
+        return cards;
+    }
+
+    private MediaCard createMediaCard(String... mediaLabel) {
         int id = mediaCardId.incrementAndGet();
 
         MediaCard mediaCard = new MediaCard(id);
+        mediaCard.setOnDirty(card -> dirtyMediaCards.put(card.getId(), card));
         mediaCard.adjustScale(appWindow.getWidth());
         mediaCard.setLabel(mediaLabel);
         mediaCards.put(id, mediaCard);
 
-        mediaCardUIUpdateQueue.add(new MediaCardUIUpdateEntry(CARD_ADD, mediaCard));
-
         return mediaCard;
     }
 
@@ -1365,13 +1484,16 @@ public final class GUIManager {
             mediaCard.close(reason);
 
             selectedMediaCards.remove(mediaCard.getId());
+            dirtyMediaCards.remove(mediaCard.getId());
 
             mediaCardUIUpdateQueue.add(new MediaCardUIUpdateEntry(CARD_REMOVE, mediaCard));
         }
     }
 
     private void updateMediaCardSelectionState() {
-        for (MediaCard mediaCard : mediaCards.values()) {
+        assert SwingUtilities.isEventDispatchThread();
+
+        for (MediaCard mediaCard : queuePanel.getBoundItems()) {
             boolean isSelected = isMediaCardSelected(mediaCard);
 
             CustomMediaCardUI ui = mediaCard.getUi();
@@ -1413,12 +1535,8 @@ public final class GUIManager {
     }
 
     private void selectMediaCardRange(MediaCard start, MediaCard end) {
-        if (start.getUi() == null || end.getUi() == null) {
-            throw new IllegalStateException("Expected MediaCard UI to be initialized");
-        }
-
-        int startIndex = getComponentIndex(start.getUi().getCard());
-        int endIndex = getComponentIndex(end.getUi().getCard());
+        int startIndex = queuePanel.indexOf(start);
+        int endIndex = queuePanel.indexOf(end);
 
         if (startIndex == -1 || endIndex == -1) {
             return;
@@ -1429,7 +1547,7 @@ public final class GUIManager {
 
         List<Integer> cardsToAdd = new ArrayList<>();
         for (int i = minIndex; i <= maxIndex; i++) {
-            MediaCard card = getMediaCardAt(i);
+            MediaCard card = queuePanel.getItem(i);
 
             if (card == null) {
                 log.error("Cannot find card for index {}", i);
@@ -1447,56 +1565,42 @@ public final class GUIManager {
     }
 
     public boolean handleMediaCardDnD(MediaCard mediaCard, Component dropTarget) {
-        CustomMediaCardUI ui = mediaCard.getUi();
+        Rectangle windowBounds = appWindow.getBounds();
+        Point dropLocation = dropTarget.getLocationOnScreen();
 
-        if (ui != null) {
-            JPanel sourcePanel = ui.getCard();
-            Rectangle windowBounds = appWindow.getBounds();
-            Point dropLocation = dropTarget.getLocationOnScreen();
+        if (windowBounds.contains(dropLocation) && dropTarget instanceof JPanel jPanel) {
+            MediaCard targetCard = getBoundMediaCard(jPanel);
+            if (targetCard == null) {
+                return false;
+            }
 
-            if (windowBounds.contains(dropLocation) && dropTarget instanceof JPanel jPanel) {
-                runOnEDT(() -> {
-                    int targetIndex = getComponentIndex(jPanel);
+            runOnEDT(() -> {
+                int targetIndex = queuePanel.indexOf(targetCard);
+                if (targetIndex == -1) {
+                    return;
+                }
 
-                    if (mediaCard.getOnDrag() != null) {
-                        int validIndex = getValidMediaCardIndex(jPanel);
+                if (mediaCard.getOnDrag() != null) {
+                    int validIndex = getValidMediaCardIndex(targetCard);
 
-                        mediaCard.getOnDrag().accept(validIndex);
-                    }
+                    mediaCard.getOnDrag().accept(validIndex);
+                }
 
-                    queuePanel.remove(sourcePanel);
-                    queuePanel.add(sourcePanel, targetIndex);
-                    queuePanel.revalidate();
-                    queuePanel.repaint();
-                });
+                queuePanel.moveItem(mediaCard, targetIndex);
+                queuePanel.revalidate();
+                queuePanel.repaint();
+            });
 
-                return true;
-            }
+            return true;
         }
 
         return false;
     }
 
-    private int getComponentIndex(JPanel component) {
-        Component[] components = queuePanel.getComponents();
-        for (int i = 0; i < components.length; i++) {
-            if (components[i] == component) {
-                return i;
-            }
-        }
-
-        return -1;
-    }
-
-    private int getValidMediaCardIndex(JPanel componentIn) {
+    private int getValidMediaCardIndex(MediaCard target) {
         int index = 0;
-        for (Component component : queuePanel.getComponents()) {
-            MediaCard card = (MediaCard)((JPanel)component).getClientProperty("MEDIA_CARD");
-            if (card == null) {
-                throw new IllegalStateException("Media card not defined for " + component.getName());
-            }
-
-            if (component == componentIn) {
+        for (MediaCard card : queuePanel.getItems()) {
+            if (card == target) {
                 return index;
             }
 
@@ -1508,16 +1612,30 @@ public final class GUIManager {
         return -1;
     }
 
-    @Nullable
-    private MediaCard getMediaCardAt(int index) {
-        if (index < 0 || index > queuePanel.getComponents().length) {
-            log.error("Index {} is out of bounds", index);
-            return null;
+    private class MediaCardRowBinder implements IVirtualRowBinder<MediaCard> {
+
+        @Override
+        public JComponent createRow() {
+            return createMediaCardRow().getCard();
         }
 
-        Component component = queuePanel.getComponents()[index];
+        @Override
+        public void bindRow(JComponent row, MediaCard mediaCard) {
+            CustomMediaCardUI ui = (CustomMediaCardUI)row.getClientProperty("MEDIA_CARD_UI");
+            ui.reset();
 
-        return (MediaCard)((JPanel)component).getClientProperty("MEDIA_CARD");
+            row.putClientProperty("MEDIA_CARD", mediaCard);
+            row.setBackground(isMediaCardSelected(mediaCard) ? color(MEDIA_CARD_SELECTED) : color(MEDIA_CARD));
+
+            mediaCard.setUi(ui);
+        }
+
+        @Override
+        public void unbindRow(JComponent row, MediaCard mediaCard) {
+            mediaCard.unbindUi();
+
+            row.putClientProperty("MEDIA_CARD", null);
+        }
     }
 
     @Data
@@ -23,17 +23,22 @@ import java.awt.GraphicsEnvironment;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import net.brlns.gdownloader.GDownloader;
 import net.brlns.gdownloader.downloader.enums.CloseReasonEnum;
 import net.brlns.gdownloader.downloader.enums.DownloadTypeEnum;
 import net.brlns.gdownloader.ui.custom.CustomMediaCardUI;
 import net.brlns.gdownloader.ui.menu.IMenuEntry;
 import net.brlns.gdownloader.util.collection.ConcurrentLinkedHashMap;
 
-import static net.brlns.gdownloader.ui.GUIManager.runOnEDT;
 import static net.brlns.gdownloader.ui.MediaCard.UpdateType.*;
 
 /**
@@ -68,6 +73,19 @@ public class MediaCard {
 
     private Supplier<Boolean> validateDropTarget;
 
+    // State changes only flag what needs repainting, GUIManager flushes dirty cards once per frame.
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final AtomicInteger dirtyFlags = new AtomicInteger();
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Consumer<MediaCard> onDirty;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final AtomicReference<Supplier<BufferedImage>> pendingThumbnail = new AtomicReference<>();
+
     protected static final int THUMBNAIL_WIDTH = 170;
     protected static final int THUMBNAIL_HEIGHT = (int)(THUMBNAIL_WIDTH / 16.0 * 9.0);
 
@@ -80,21 +98,44 @@ public class MediaCard {
     }
 
     public void setUi(CustomMediaCardUI uiIn) {
+        assert SwingUtilities.isEventDispatchThread();
+
         ui = uiIn;
-        updateUI(ALL);
+
+        // Paint the initial state right away instead of waiting for the next frame.
+        dirtyFlags.set(0);
+        applyUpdate(ALL);
+
+        if (thumbnailImage == null && pendingThumbnail.get() != null) {
+            // Left for when the card actually scrolls into view
+            updateUI(THUMBNAIL_IMAGE);
+        }
+    }
+
+    /**
+     * Detaches the card from its row once it scrolls away. Changes made from then on are only kept
+     * in the model, binding a row again paints all of them at once.
+     */
+    public void unbindUi() {
+        assert SwingUtilities.isEventDispatchThread();
+
+        ui = null;
     }
 
     public void adjustScale(int panelWidth) {
+        scale = getScaleFactor(panelWidth);
+        updateUI(SCALE);
+    }
+
+    public static double getScaleFactor(int panelWidth) {
         GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
         GraphicsDevice gs = ge.getDefaultScreenDevice();
         Rectangle screenBounds = gs.getDefaultConfiguration().getBounds();
         double screenWidth = screenBounds.getWidth();
 
         double targetWidth = screenWidth * 0.9;
-        double scaleFactor = (panelWidth >= targetWidth) ? 1.2 : 1;
 
-        scale = scaleFactor;
-        updateUI(SCALE);
+        return (panelWidth >= targetWidth) ? 1.2 : 1;
     }
 
     public void setPlaceholderIcon(DownloadTypeEnum downloadTypeIn) {
@@ -139,78 +180,144 @@ public class MediaCard {
     }
 
     public void setThumbnailAndDuration(BufferedImage imgIn, long durationIn) {
+        pendingThumbnail.set(null);
+
         thumbnailImage = imgIn;
         thumbnailDuration = durationIn;
         updateUI(THUMBNAIL_IMAGE);
     }
 
+    /**
+     * Defers producing the thumbnail until the card is first flushed while on screen.
+     */
+    public void setLazyThumbnail(Supplier<BufferedImage> loader, long durationIn) {
+        thumbnailDuration = durationIn;
+        pendingThumbnail.set(loader);
+
+        updateUI(THUMBNAIL_IMAGE);
+    }
+
+    /**
+     * Marks the given part of the card as dirty. The change is painted on the next UI frame,
+     * intermediate values set in between frames are never painted.
+     */
     public void updateUI(UpdateType updateType) {
+        int flag = 1 << updateType.ordinal();
+
+        int previous = dirtyFlags.getAndUpdate(flags -> flags | flag);
+        if (previous == 0 && onDirty != null) {
+            onDirty.accept(this);
+        }
+    }
+
+    /**
+     * Paints all pending changes. Must be called from the EDT.
+     *
+     * @return false if there was no UI to paint to and the changes were kept for later.
+     */
+    public boolean flushUI() {
+        assert SwingUtilities.isEventDispatchThread();
+
         if (ui == null) {
-            return; // No UI available, skip updates
+            return false;
+        }
+
+        int flags = dirtyFlags.getAndSet(0);
+        if ((flags & (1 << ALL.ordinal())) != 0) {
+            applyUpdate(ALL);
+            return true;
         }
 
-        runOnEDT(() -> {
-            switch (updateType) {
-                case ALL -> {
-                    if (labelText != null) {
-                        ui.updateLabel(labelText);
-                    }
-                    if (scale != 0) {
-                        ui.updateScale(scale);
-                    }
-                    if (tooltipText != null) {
-                        ui.updateTooltip(tooltipText);
-                    }
-                    if (thumbnailTooltipText != null) {
-                        ui.updateThumbnailTooltip(thumbnailTooltipText);
-                    }
-                    if (progressBarText != null) {
-                        ui.updateProgressBar(percentage, progressBarText, progressBarBackgroundColor, progressBarTextColor);
-                    }
-                    if (thumbnailImage != null) {
-                        ui.updateThumbnail(thumbnailImage, thumbnailDuration);
-                    }
-                    if (placeholderIconType != null) {
-                        ui.updatePlaceholderIcon(placeholderIconType);
-                    }
+        for (UpdateType updateType : UpdateType.values()) {
+            if ((flags & (1 << updateType.ordinal())) != 0) {
+                applyUpdate(updateType);
+            }
+        }
+
+        return true;
+    }
+
+    public boolean isDirty() {
+        return dirtyFlags.get() != 0;
+    }
+
+    private void applyUpdate(UpdateType updateType) {
+        switch (updateType) {
+            case ALL -> {
+                if (labelText != null) {
+                    ui.updateLabel(labelText);
+                }
+                if (scale != 0) {
+                    ui.updateScale(scale);
+                }
+                if (tooltipText != null) {
+                    ui.updateTooltip(tooltipText);
+                }
+                if (thumbnailTooltipText != null) {
+                    ui.updateThumbnailTooltip(thumbnailTooltipText);
+                }
+                if (progressBarText != null) {
+                    ui.updateProgressBar(percentage, progressBarText, progressBarBackgroundColor, progressBarTextColor);
+                }
+                if (thumbnailImage != null) {
+                    ui.updateThumbnail(thumbnailImage, thumbnailDuration);
+                }
+                if (placeholderIconType != null) {
+                    ui.updatePlaceholderIcon(placeholderIconType);
                 }
-                case LABEL_TEXT -> {
-                    if (labelText != null) {
-                        ui.updateLabel(labelText);
-                    }
+            }
+            case LABEL_TEXT -> {
+                if (labelText != null) {
+                    ui.updateLabel(labelText);
                 }
-                case SCALE -> {
-                    if (scale != 0) {
-                        ui.updateScale(scale);
-                    }
+            }
+            case SCALE -> {
+                if (scale != 0) {
+                    ui.updateScale(scale);
                 }
-                case TOOLTIP -> {
-                    if (tooltipText != null) {
-                        ui.updateTooltip(tooltipText);
-                    }
+            }
+            case TOOLTIP -> {
+                if (tooltipText != null) {
+                    ui.updateTooltip(tooltipText);
                 }
-                case THUMBNAIL_TOOLTIP -> {
-                    if (thumbnailTooltipText != null) {
-                        ui.updateThumbnailTooltip(thumbnailTooltipText);
-                    }
+            }
+            case THUMBNAIL_TOOLTIP -> {
+                if (thumbnailTooltipText != null) {
+                    ui.updateThumbnailTooltip(thumbnailTooltipText);
                 }
-                case PROGRESS_BAR -> {
-                    if (progressBarText != null) {
-                        ui.updateProgressBar(percentage, progressBarText, progressBarBackgroundColor, progressBarTextColor);
-                    }
+            }
+            case PROGRESS_BAR -> {
+                if (progressBarText != null) {
+                    ui.updateProgressBar(percentage, progressBarText, progressBarBackgroundColor, progressBarTextColor);
                 }
-                case THUMBNAIL_IMAGE -> {
-                    if (thumbnailImage != null) {
-                        ui.updateThumbnail(thumbnailImage, thumbnailDuration);
-                    }
+            }
+            case THUMBNAIL_IMAGE -> {
+                if (thumbnailImage != null) {
+                    ui.updateThumbnail(thumbnailImage, thumbnailDuration);
+                } else {
+                    loadPendingThumbnail();
                 }
-                case PLACEHOLDER_ICON -> {
-                    if (placeholderIconType != null) {
-                        ui.updatePlaceholderIcon(placeholderIconType);
-                    }
+            }
+            case PLACEHOLDER_ICON -> {
+                if (placeholderIconType != null) {
+                    ui.updatePlaceholderIcon(placeholderIconType);
                 }
             }
-        });
+        }
+    }
+
+    private void loadPendingThumbnail() {
+        Supplier<BufferedImage> loader = pendingThumbnail.getAndSet(null);
+        if (loader == null) {
+            return;
+        }
+
+        GDownloader.GLOBAL_THREAD_POOL.submitWithPriority(() -> {
+            BufferedImage image = loader.get();
+            if (image != null && !closed) {
+                setThumbnailAndDuration(image, thumbnailDuration);
+            }
+        }, 5);
     }
 
     public static enum UpdateType {
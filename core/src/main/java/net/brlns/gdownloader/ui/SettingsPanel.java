@@ -889,6 +889,13 @@ public class SettingsPanel {
             false
         );
 
+        addCheckBox(panel, gbcPanel,
+            "settings.expand_playlists",
+            settings::isExpandPlaylists,
+            settings::setExpandPlaylists,
+            false
+        );
+
         addCheckBox(panel, gbcPanel,
             "settings.download_youtube_channels",
             settings::isDownloadYoutubeChannels,
@@ -24,6 +24,8 @@ import javax.swing.SwingUtilities;
 import lombok.Data;
 import net.brlns.gdownloader.downloader.enums.DownloadTypeEnum;
 
+import static net.brlns.gdownloader.lang.Language.l10n;
+
 /**
  * @author Gabriel / hstr0100 / vertx010
  */
@@ -39,6 +41,24 @@ public class CustomMediaCardUI {
     private final CustomThumbnailPanel thumbnailPanel;
     private final CustomProgressBar progressBar;
 
+    /**
+     * Puts the row back in its initial state, so nothing of the previous card shows once it is bound to another.
+     */
+    public void reset() {
+        assert SwingUtilities.isEventDispatchThread();
+        mediaNameLabel.setFullText("");
+        mediaNameLabel.setToolTipText(null);
+
+        thumbnailPanel.setToolTipText(null);
+        thumbnailPanel.clear();
+        thumbnailPanel.setPlaceholderIcon(DownloadTypeEnum.ALL);
+
+        progressBar.setValue(100);
+        progressBar.setString(l10n("enums.download_status.queued"));
+        progressBar.setForeground(Color.GRAY);
+        progressBar.setTextColor(Color.WHITE);
+    }
+
     public void updateLabel(String... labelText) {
         assert SwingUtilities.isEventDispatchThread();
         mediaNameLabel.setFullText(labelText);
@@ -94,6 +94,20 @@ public class CustomThumbnailPanel extends JPanel {
         repaint();
     }
 
+    /**
+     * Drops the image and placeholder, leaving the panel as it was when created.
+     */
+    public void clear() {
+        removeAll();
+
+        image = null;
+        placeholderIcon = null;
+        durationText = null;
+
+        revalidate();
+        repaint();
+    }
+
     public void setImage(BufferedImage imageIn) {
         image = imageIn;
 
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.ui.custom;
+
+import jakarta.annotation.Nullable;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.util.*;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.JViewport;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import lombok.Getter;
+
+/**
+ * A vertical list of fixed height rows that only keeps components for the rows around the viewport.
+ * Items are plain models, rows are bound to them as they scroll into view and recycled once they leave it.
+ *
+ * Call {@link #updateRows()} whenever the enclosing viewport scrolls.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+public class CustomVirtualListPanel<T> extends JPanel implements Scrollable {
+
+    // Rows kept bound past each edge of the viewport, so short scrolls do not rebind anything
+    private static final int ROW_BUFFER = 4;
+
+    private final IVirtualRowBinder<T> binder;
+
+    private final List<T> items = new ArrayList<>();
+    private final Map<T, JComponent> boundRows = new IdentityHashMap<>();
+    private final Deque<JComponent> freeRows = new ArrayDeque<>();
+
+    @Getter
+    private int rowHeight;
+
+    @Nullable
+    private JComponent emptyComponent;
+
+    @SuppressWarnings("this-escape")
+    public CustomVirtualListPanel(IVirtualRowBinder<T> binderIn, int rowHeightIn) {
+        super(null);
+
+        binder = binderIn;
+        rowHeight = Math.max(1, rowHeightIn);
+    }
+
+    /**
+     * Component shown in place of the rows while the list is empty.
+     */
+    public void setEmptyComponent(@Nullable JComponent emptyComponentIn) {
+        if (emptyComponent != null && emptyComponent.getParent() == this) {
+            remove(emptyComponent);
+        }
+
+        emptyComponent = emptyComponentIn;
+
+        revalidate();
+    }
+
+    public void setRowHeight(int rowHeightIn) {
+        int height = Math.max(1, rowHeightIn);
+        if (rowHeight != height) {
+            rowHeight = height;
+
+            revalidate();
+            repaint();
+        }
+    }
+
+    // Model changes do not relayout by themselves, callers revalidate once they are done with a batch
+    public void addItem(T item) {
+        assert SwingUtilities.isEventDispatchThread();
+        items.add(item);
+    }
+
+    public void removeItems(Collection<? extends T> toRemove) {
+        assert SwingUtilities.isEventDispatchThread();
+        if (toRemove.isEmpty()) {
+            return;
+        }
+
+        Set<T> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(toRemove);
+
+        for (T item : removed) {
+            JComponent row = boundRows.remove(item);
+            if (row != null) {
+                releaseRow(row, item);
+            }
+        }
+
+        items.removeIf(removed::contains);
+    }
+
+    /**
+     * Moves the item to the given position, as it was before the item was taken out of the list.
+     */
+    public void moveItem(T item, int targetIndex) {
+        assert SwingUtilities.isEventDispatchThread();
+        int index = indexOf(item);
+        if (index == -1) {
+            return;
+        }
+
+        items.remove(index);
+        items.add(Math.clamp(targetIndex, 0, items.size()), item);
+    }
+
+    public int indexOf(T item) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) == item) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Nullable
+    public T getItem(int index) {
+        if (index < 0 || index >= items.size()) {
+            return null;
+        }
+
+        return items.get(index);
+    }
+
+    public int getItemCount() {
+        return items.size();
+    }
+
+    public List<T> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Items that currently have a row, visible or within the buffer around the viewport.
+     */
+    public Collection<T> getBoundItems() {
+        return Collections.unmodifiableSet(boundRows.keySet());
+    }
+
+    @Override
+    public void doLayout() {
+        updateRows();
+    }
+
+    /**
+     * Binds rows to the items around the visible area and recycles the rest.
+     */
+    public void updateRows() {
+        assert SwingUtilities.isEventDispatchThread();
+        int width = getWidth();
+
+        if (items.isEmpty()) {
+            for (Map.Entry<T, JComponent> entry : boundRows.entrySet()) {
+                releaseRow(entry.getValue(), entry.getKey());
+            }
+
+            boundRows.clear();
+
+            if (emptyComponent != null) {
+                if (emptyComponent.getParent() != this) {
+                    add(emptyComponent);
+                }
+
+                emptyComponent.setBounds(0, 0, width, getHeight());
+            }
+
+            return;
+        }
+
+        if (emptyComponent != null && emptyComponent.getParent() == this) {
+            remove(emptyComponent);
+        }
+
+        Rectangle visibleRect = getVisibleRect();
+        int first = Math.max(0, visibleRect.y / rowHeight - ROW_BUFFER);
+        int last = Math.min(items.size() - 1, (visibleRect.y + visibleRect.height) / rowHeight + ROW_BUFFER);
+
+        Set<T> inRange = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = first; i <= last; i++) {
+            inRange.add(items.get(i));
+        }
+
+        // Free rows that left the range first, so they can be reused right below
+        Iterator<Map.Entry<T, JComponent>> iterator = boundRows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<T, JComponent> entry = iterator.next();
+
+            T item = entry.getKey();
+            if (!inRange.contains(item)) {
+                JComponent row = entry.getValue();
+
+                iterator.remove();
+                releaseRow(row, item);
+            }
+        }
+
+        for (int i = first; i <= last; i++) {
+            T item = items.get(i);
+
+            JComponent row = boundRows.get(item);
+            if (row == null) {
+                row = obtainRow();
+                binder.bindRow(row, item);
+                boundRows.put(item, row);
+            }
+
+            row.setBounds(0, i * rowHeight, width, rowHeight);
+            row.validate();
+        }
+    }
+
+    private JComponent obtainRow() {
+        JComponent row = freeRows.poll();
+        if (row == null) {
+            row = binder.createRow();
+            add(row);
+        }
+
+        row.setVisible(true);
+
+        return row;
+    }
+
+    private void releaseRow(JComponent row, T item) {
+        binder.unbindRow(row, item);
+
+        row.setVisible(false);
+        freeRows.push(row);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (items.isEmpty()) {
+            return emptyComponent != null ? emptyComponent.getPreferredSize() : new Dimension();
+        }
+
+        return new Dimension(0, items.size() * rowHeight);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? Math.max(1, rowHeight / 8) : 8;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        // Fill the viewport when there are not enough rows to scroll, otherwise the empty message sits at the top
+        Container parent = getParent();
+
+        return parent instanceof JViewport viewport
+            && viewport.getHeight() > getPreferredSize().height;
+    }
+}
@@ -37,12 +37,14 @@ import java.nio.file.attribute.PosixFilePermissions;
 import java.time.Duration;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.brlns.gdownloader.GDownloader;
 import net.brlns.gdownloader.settings.enums.ISettingsEnum;
+import net.brlns.gdownloader.util.HttpResponseCache;
 import net.brlns.gdownloader.util.NoFallbackAvailableException;
 import net.brlns.gdownloader.util.Pair;
 import net.brlns.gdownloader.util.URLUtils;
@@ -61,6 +63,8 @@ public abstract class AbstractGitUpdater {
         .version(HttpClient.Version.HTTP_2)
         .build();
 
+    private static final Duration RELEASE_INFO_MAX_AGE = Duration.ofHours(1);
+
     protected final GDownloader main;
 
     private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
@@ -198,7 +202,7 @@ public abstract class AbstractGitUpdater {
         Pair<String, String> tag = null;
 
         try {
-            tag = getLatestReleaseTag();
+            tag = getLatestReleaseTag(force);
         } catch (Exception e) {
             log.error("HTTP error for {}", getRepo(), e);
         }
@@ -317,19 +321,20 @@ public abstract class AbstractGitUpdater {
     }
 
     @Nullable
-    protected Pair<String, String> getLatestReleaseTag() throws IOException, InterruptedException {
+    protected Pair<String, String> getLatestReleaseTag(boolean force) throws IOException {
         String apiUrl = String.format("https://api.github.com/repos/%s/%s/releases/latest", getUser(), getRepo());
 
-        HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create(apiUrl))
-            .timeout(Duration.ofSeconds(10))
-            .header("User-Agent", URLUtils.GLOBAL_USER_AGENT)
-            .build();
+        // Forced checks still revalidate, an unchanged release costs a 304 that does not count against the rate limit
+        Optional<String> body = HttpResponseCache.getShared().get(apiUrl,
+            force ? Duration.ZERO : RELEASE_INFO_MAX_AGE,
+            "Accept", "application/vnd.github+json");
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (body.isEmpty()) {
+            return null;
+        }
 
-        //log.info(response.body());
-        JsonNode jsonNode = GDownloader.OBJECT_MAPPER.readTree(response.body());
+        //log.info(body.get());
+        JsonNode jsonNode = GDownloader.OBJECT_MAPPER.readTree(body.get());
 
         JsonNode tagName = jsonNode.get("tag_name");
         if (tagName == null) {
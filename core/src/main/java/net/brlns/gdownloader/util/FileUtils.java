@@ -18,11 +18,15 @@ package net.brlns.gdownloader.util;
 
 import jakarta.annotation.Nullable;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.concurrent.locks.ReentrantLock;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -125,66 +129,6 @@ public final class FileUtils {
         }
     }
 
-    public static boolean removeLineIfExists(File file, String searchString) throws IOException {
-        if (file == null || !file.exists() || searchString == null) {
-            return false; // Exit silently
-        }
-
-        if (!file.isFile()) {
-            if (log.isDebugEnabled()) {
-                log.error("Not a regular file: " + file.getAbsolutePath());
-            }
-
-            return false;
-        }
-
-        List<String> lines = new ArrayList<>();
-        boolean lineRemoved = false;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String currentLine;
-            while ((currentLine = reader.readLine()) != null) {
-                if (currentLine.contains(searchString)) {
-                    lineRemoved = true;
-                    continue;
-                }
-
-                lines.add(currentLine);
-            }
-        } catch (IOException e) {
-            throw e;
-        }
-
-        if (!lineRemoved) {
-            return false;
-        }
-
-        File tempFile = new File(file.getAbsolutePath() + ".tmp");
-        try (
-            BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
-            for (String line : lines) {
-                writer.write(line);
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            if (tempFile.exists()) {
-                tempFile.delete();
-            }
-
-            throw e;
-        }
-
-        if (!file.delete()) {
-            throw new IOException("Could not delete original file: " + file.getAbsolutePath());
-        }
-
-        if (!tempFile.renameTo(file)) {
-            throw new IOException("Could not rename temp file to original filename");
-        }
-
-        return lineRemoved;
-    }
-
     public static boolean isFileType(Path path, String extension) {
         return path.getFileName().toString().toLowerCase().endsWith("." + extension);
     }
@@ -202,4 +146,30 @@ public final class FileUtils {
     public static Path relativize(File originalDirectory, File targetDirectory, Path file) {
         return relativize(originalDirectory.toPath(), targetDirectory.toPath(), file);
     }
+
+    /**
+     * Moves a file over the target atomically, falling back to a plain replace where the filesystem cannot.
+     */
+    public static void atomicMove(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static String sha256Hex(String text) {
+        return sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha256Hex(byte[] bytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            return HexFormat.of().formatHex(digest.digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
 }
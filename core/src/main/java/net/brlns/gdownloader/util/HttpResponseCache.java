@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.util;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.brlns.gdownloader.GDownloader;
+
+/**
+ * A small on-disk cache for text resources fetched over HTTP, such as the oEmbed provider list
+ * and GitHub release metadata.
+ *
+ * Within the given max age a cached copy is returned without touching the network. After that the
+ * request is revalidated with {@code If-None-Match}/{@code If-Modified-Since}, so an unchanged resource
+ * costs a body-less 304. When the server cannot be reached the last cached copy is returned regardless of age.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Slf4j
+public class HttpResponseCache {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private static HttpResponseCache _shared;
+
+    private final File directory;
+    private final HttpClient client;
+
+    public HttpResponseCache(File directoryIn, HttpClient clientIn) {
+        directory = directoryIn;
+        client = clientIn;
+    }
+
+    public static synchronized HttpResponseCache getShared() {
+        if (_shared == null) {
+            HttpClient client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.ALWAYS)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .version(HttpClient.Version.HTTP_2)
+                .build();
+
+            _shared = new HttpResponseCache(new File(GDownloader.getWorkDirectory(), "http_cache"), client);
+        }
+
+        return _shared;
+    }
+
+    /**
+     * Returns the cached body for this url regardless of its age, without any network access.
+     */
+    public Optional<String> peek(String url) {
+        CachedResponse cached = readEntry(url);
+
+        return cached != null ? Optional.of(cached.getBody()) : Optional.empty();
+    }
+
+    /**
+     * Fetches the given url, going through the cache as described above.
+     *
+     * @param headers additional request headers, as name/value pairs.
+     * @return the response body, or empty if the resource could not be fetched and nothing is cached.
+     */
+    public Optional<String> get(String url, Duration maxAge, String... headers) {
+        CachedResponse cached = readEntry(url);
+
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.getFetchedAt() < maxAge.toMillis()) {
+            log.debug("Using cached response for {}", url);
+            return Optional.of(cached.getBody());
+        }
+
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("User-Agent", URLUtils.GLOBAL_USER_AGENT);
+
+            if (headers.length > 0) {
+                builder.headers(headers);
+            }
+
+            if (cached != null) {
+                if (cached.getEtag() != null) {
+                    builder.header("If-None-Match", cached.getEtag());
+                }
+
+                if (cached.getLastModified() != null) {
+                    builder.header("If-Modified-Since", cached.getLastModified());
+                }
+            }
+
+            HttpResponse<String> response = client.send(builder.GET().build(),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+
+            int statusCode = response.statusCode();
+            if (statusCode == 304 && cached != null) {
+                log.debug("Cached response for {} is still valid", url);
+
+                cached.setFetchedAt(now);
+                writeEntry(cached);
+
+                return Optional.of(cached.getBody());
+            }
+
+            if (statusCode == 200) {
+                CachedResponse entry = new CachedResponse();
+                entry.setUrl(url);
+                entry.setEtag(response.headers().firstValue("ETag").orElse(null));
+                entry.setLastModified(response.headers().firstValue("Last-Modified").orElse(null));
+                entry.setFetchedAt(now);
+                entry.setBody(response.body());
+
+                writeEntry(entry);
+
+                return Optional.of(entry.getBody());
+            }
+
+            log.error("Unexpected response for {}, status code: {}", url, statusCode);
+        } catch (IOException e) {
+            log.error("Cannot fetch {}: {}", url, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (cached != null) {
+            log.info("Falling back to cached response for {}", url);
+            return Optional.of(cached.getBody());
+        }
+
+        return Optional.empty();
+    }
+
+    @Nullable
+    private CachedResponse readEntry(String url) {
+        Path path = getPath(url);
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try {
+            CachedResponse entry = GDownloader.OBJECT_MAPPER.readValue(path.toFile(), CachedResponse.class);
+
+            // Guards against hash collisions and hand edited files alike
+            if (!url.equals(entry.getUrl()) || entry.getBody() == null) {
+                return null;
+            }
+
+            return entry;
+        } catch (IOException e) {
+            log.error("Cannot read cached response {}", path, e);
+            return null;
+        }
+    }
+
+    private void writeEntry(CachedResponse entry) {
+        Path path = getPath(entry.getUrl());
+
+        try {
+            Files.createDirectories(path.getParent());
+
+            Path tmpPath = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try {
+                GDownloader.OBJECT_MAPPER.writeValue(tmpPath.toFile(), entry);
+
+                FileUtils.atomicMove(tmpPath, path);
+            } finally {
+                Files.deleteIfExists(tmpPath);
+            }
+        } catch (IOException e) {
+            log.error("Cannot write cached response {}", path, e);
+        }
+    }
+
+    private Path getPath(String url) {
+        return directory.toPath().resolve(FileUtils.sha256Hex(url) + ".json");
+    }
+
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class CachedResponse {
+
+        private String url;
+
+        @Nullable
+        private String etag;
+
+        @Nullable
+        private String lastModified;
+
+        private long fetchedAt;
+
+        private String body;
+    }
+}
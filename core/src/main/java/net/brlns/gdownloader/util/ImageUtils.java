@@ -22,8 +22,13 @@ import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Base64;
+import java.util.Iterator;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import lombok.NonNull;
 import net.brlns.gdownloader.GDownloader;
 
@@ -63,6 +68,45 @@ public final class ImageUtils {
         }
     }
 
+    /**
+     * Decodes an image, downscaled to at most the given width.
+     *
+     * Large images are subsampled while decoding, so only about twice the target resolution
+     * is ever materialized. The final step down to the target width is done with bicubic interpolation.
+     *
+     * @return the decoded image, or null if no reader supports the data.
+     */
+    @Nullable
+    public static BufferedImage decodeDownscaled(byte[] imageBytes, int maxWidth) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            if (iis == null) {
+                return null;
+            }
+
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+
+                // Subsampling picks every nth pixel, leave some headroom for the bicubic pass to smooth out
+                int subsampling = reader.getWidth(0) / (maxWidth * 2);
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+
+                return downscaleImage(reader.read(0, param), maxWidth);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
     public static BufferedImage downscaleImage(BufferedImage originalImage, int maxWidth) {
         int originalWidth = originalImage.getWidth();
         int originalHeight = originalImage.getHeight();
@@ -73,12 +117,21 @@ public final class ImageUtils {
 
         float aspectRatio = (float)originalHeight / originalWidth;
         int newWidth = maxWidth;
-        int newHeight = Math.round(maxWidth * aspectRatio);
+        int newHeight = Math.max(1, Math.round(maxWidth * aspectRatio));
+
+        int type = originalImage.getType();
+        if (type == BufferedImage.TYPE_CUSTOM) {
+            // Some readers produce custom layouts, which cannot be used to create a new image
+            type = originalImage.getColorModel().hasAlpha()
+                ? BufferedImage.TYPE_INT_ARGB
+                : BufferedImage.TYPE_INT_RGB;
+        }
 
-        BufferedImage resizedImage = new BufferedImage(newWidth, newHeight, originalImage.getType());
+        BufferedImage resizedImage = new BufferedImage(newWidth, newHeight, type);
 
         Graphics2D g = resizedImage.createGraphics();
         g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
         g.drawImage(originalImage, 0, 0, newWidth, newHeight, null);
         g.dispose();
 
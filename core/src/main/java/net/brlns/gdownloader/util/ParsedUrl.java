@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.util;
+
+import jakarta.annotation.Nullable;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * A url parsed once, exposing the pieces the capture path looks at.
+ *
+ * Query parameters are only split when first asked for. Unparseable urls still produce an instance,
+ * with {@link #isValid()} returning false and every component empty, so callers can keep the original string around.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+@Getter
+public final class ParsedUrl {
+
+    private final String url;
+    private final boolean valid;
+
+    @Nullable
+    private final String scheme;
+    @Nullable
+    private final String host;
+
+    private final String rawPath;
+    @Nullable
+    private final String rawQuery;
+
+    // Lazily split, see getQueryParameters()
+    private Map<String, String> queryParameters;
+
+    private ParsedUrl(String urlIn, @Nullable URI uri) {
+        url = urlIn;
+        valid = uri != null;
+
+        if (uri != null) {
+            scheme = uri.getScheme();
+            host = uri.getHost();
+            rawPath = uri.getRawPath() != null ? uri.getRawPath() : "";
+            rawQuery = uri.getRawQuery();
+        } else {
+            scheme = null;
+            host = null;
+            rawPath = "";
+            rawQuery = null;
+        }
+    }
+
+    public static ParsedUrl parse(String url) {
+        try {
+            return new ParsedUrl(url, new URI(url));
+        } catch (URISyntaxException e) {
+            return new ParsedUrl(url, null);
+        }
+    }
+
+    /**
+     * @return the raw, undecoded value of the first occurrence of the parameter, or null if absent or empty.
+     */
+    @Nullable
+    public String getParameter(String name) {
+        return getQueryParameters().get(name);
+    }
+
+    /**
+     * @return the raw query parameters in order of appearance, keeping the first value of repeated keys.
+     */
+    public Map<String, String> getQueryParameters() {
+        if (queryParameters == null) {
+            queryParameters = Collections.unmodifiableMap(parseRawQuery(rawQuery));
+        }
+
+        return queryParameters;
+    }
+
+    /**
+     * @return the n-th non-empty segment of the path, or null if there are not that many.
+     */
+    @Nullable
+    public String getPathSegment(int index) {
+        int current = 0;
+        int start = 0;
+
+        while (start < rawPath.length()) {
+            int end = rawPath.indexOf('/', start);
+            if (end == -1) {
+                end = rawPath.length();
+            }
+
+            if (end > start && current++ == index) {
+                return rawPath.substring(start, end);
+            }
+
+            start = end + 1;
+        }
+
+        return null;
+    }
+
+    private static Map<String, String> parseRawQuery(@Nullable String rawQuery) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+
+        int start = 0;
+        while (start <= rawQuery.length()) {
+            int end = rawQuery.indexOf('&', start);
+            if (end == -1) {
+                end = rawQuery.length();
+            }
+
+            int separator = rawQuery.indexOf('=', start);
+            if (separator > start && separator < end - 1) {
+                params.putIfAbsent(rawQuery.substring(start, separator), rawQuery.substring(separator + 1, end));
+            }
+
+            start = end + 1;
+        }
+
+        return params;
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.Getter;
+
+/**
+ * Binds json objects read from a stream to a type, materializing only the top-level properties
+ * that type actually declares.
+ *
+ * Every other subtree is skipped by the parser as it streams past, so large fields such as
+ * yt-dlp's {@code formats} or {@code automatic_captions} never become Strings or nodes.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+public final class ProjectedJsonReader<T> {
+
+    private final ObjectMapper mapper;
+    private final ObjectReader reader;
+
+    @Getter
+    private final Set<String> properties;
+
+    private final TokenFilter filter;
+
+    public ProjectedJsonReader(ObjectMapper mapperIn, Class<T> type) {
+        mapper = mapperIn;
+
+        JavaType javaType = mapper.constructType(type);
+        reader = mapper.readerFor(javaType);
+
+        properties = mapper.getDeserializationConfig().introspect(javaType)
+            .findProperties().stream()
+            .filter(BeanPropertyDefinition::couldDeserialize)
+            .map(BeanPropertyDefinition::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
+        filter = new TokenFilter() {
+            @Override
+            public TokenFilter includeProperty(String name) {
+                // Only called for top-level properties, anything included is taken whole
+                return properties.contains(name) ? TokenFilter.INCLUDE_ALL : null;
+            }
+        };
+    }
+
+    /**
+     * Reads the first object from the stream. The stream is closed afterwards.
+     */
+    public Optional<T> readFirst(InputStream inputStream) throws IOException {
+        try (JsonParser parser = createParser(inputStream);
+             MappingIterator<T> iterator = reader.readValues(parser)) {
+            return iterator.hasNextValue() ? Optional.of(iterator.nextValue()) : Optional.empty();
+        }
+    }
+
+    private JsonParser createParser(InputStream inputStream) throws IOException {
+        return new FilteringParserDelegate(mapper.getFactory().createParser(inputStream),
+            filter, TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true);
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Incrementally decodes a byte stream into lines without allocating per line.
+ *
+ * Multibyte sequences split across reads are carried over to the next call, and both
+ * {@code \n} and lone {@code \r} are treated as line terminators, since yt-dlp and ffmpeg
+ * redraw their progress lines with carriage returns. {@code \r\n} counts as a single terminator.
+ *
+ * The {@link Line} handed to the consumer is reused; it is only valid for the duration of the callback.
+ * This class is not thread-safe, use one instance per stream.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+public class StreamingLineDecoder {
+
+    public static final int DEFAULT_BUFFER_SIZE = 4096;
+    public static final int DEFAULT_MAX_LINE_LENGTH = 16384;
+
+    private final CharsetDecoder decoder;
+    private final ByteBuffer byteBuffer;
+    private final CharBuffer charBuffer;
+
+    private final int maxLineLength;
+    private final Line line;
+
+    private boolean lastWasCarriageReturn;
+
+    public StreamingLineDecoder() {
+        this(StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE, DEFAULT_MAX_LINE_LENGTH);
+    }
+
+    public StreamingLineDecoder(Charset charset, int bufferSize, int maxLineLengthIn) {
+        decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        byteBuffer = ByteBuffer.allocate(bufferSize);
+        charBuffer = CharBuffer.allocate(bufferSize);
+
+        maxLineLength = maxLineLengthIn;
+        line = new Line(Math.min(256, maxLineLengthIn));
+    }
+
+    /**
+     * Decodes the given bytes, emitting every line completed by them.
+     * Incomplete trailing data is retained until the next call or {@link #finish(LineConsumer)}.
+     */
+    public void feed(byte[] bytes, int offset, int length, LineConsumer consumer) {
+        int position = offset;
+        int end = offset + length;
+
+        while (position < end) {
+            int chunk = Math.min(byteBuffer.remaining(), end - position);
+            byteBuffer.put(bytes, position, chunk);
+            position += chunk;
+
+            decodeBuffered(false, consumer);
+        }
+    }
+
+    /**
+     * Flushes any pending bytes and emits the last line, even if it was not terminated.
+     */
+    public void finish(LineConsumer consumer) {
+        decodeBuffered(true, consumer);
+
+        CoderResult result;
+        do {
+            result = decoder.flush(charBuffer);
+            drainChars(consumer);
+        } while (result.isOverflow());
+
+        emitLine(consumer);
+
+        decoder.reset();
+        lastWasCarriageReturn = false;
+    }
+
+    private void decodeBuffered(boolean endOfInput, LineConsumer consumer) {
+        byteBuffer.flip();
+
+        CoderResult result;
+        do {
+            result = decoder.decode(byteBuffer, charBuffer, endOfInput);
+            drainChars(consumer);
+        } while (result.isOverflow());
+
+        // Keeps partial multibyte sequences around for the next read
+        byteBuffer.compact();
+    }
+
+    private void drainChars(LineConsumer consumer) {
+        charBuffer.flip();
+
+        while (charBuffer.hasRemaining()) {
+            char ch = charBuffer.get();
+
+            if (ch == '\n') {
+                if (!lastWasCarriageReturn) {
+                    emitLine(consumer);
+                }
+
+                lastWasCarriageReturn = false;
+            } else if (ch == '\r') {
+                emitLine(consumer);
+
+                lastWasCarriageReturn = true;
+            } else {
+                if (line.builder.length() < maxLineLength) {
+                    line.builder.append(ch);
+                }
+
+                lastWasCarriageReturn = false;
+            }
+        }
+
+        charBuffer.clear();
+    }
+
+    private void emitLine(LineConsumer consumer) {
+        if (line.builder.length() > 0) {
+            consumer.accept(line);
+        }
+
+        line.reset();
+    }
+
+    @FunctionalInterface
+    public interface LineConsumer {
+
+        void accept(Line line);
+    }
+
+    /**
+     * A reusable, read-only view over the line currently being emitted.
+     * {@link #toString()} materializes and caches a String, call it only when one is actually needed.
+     */
+    public static final class Line implements CharSequence {
+
+        private final StringBuilder builder;
+        private String cached;
+
+        private Line(int initialCapacity) {
+            builder = new StringBuilder(initialCapacity);
+        }
+
+        private void reset() {
+            builder.setLength(0);
+            cached = null;
+        }
+
+        @Override
+        public int length() {
+            return builder.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return builder.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return builder.subSequence(start, end);
+        }
+
+        public int indexOf(String str) {
+            return builder.indexOf(str);
+        }
+
+        public int indexOf(String str, int fromIndex) {
+            return builder.indexOf(str, fromIndex);
+        }
+
+        public boolean contains(String str) {
+            return builder.indexOf(str) != -1;
+        }
+
+        public boolean startsWith(String prefix) {
+            int length = prefix.length();
+            if (length > builder.length()) {
+                return false;
+            }
+
+            for (int i = 0; i < length; i++) {
+                if (builder.charAt(i) != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        public boolean endsWith(String suffix) {
+            int length = suffix.length();
+            int offset = builder.length() - length;
+            if (offset < 0) {
+                return false;
+            }
+
+            for (int i = 0; i < length; i++) {
+                if (builder.charAt(offset + i) != suffix.charAt(i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Copies this line into the given builder without materializing a String.
+         */
+        public void copyTo(StringBuilder target) {
+            target.setLength(0);
+            target.append(builder);
+        }
+
+        @Override
+        public String toString() {
+            if (cached == null) {
+                cached = builder.toString();
+            }
+
+            return cached;
+        }
+    }
+}
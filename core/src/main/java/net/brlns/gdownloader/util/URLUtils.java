@@ -37,32 +37,102 @@ public final class URLUtils {
 
     public static String GLOBAL_USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/56.0.2924.87 Safari/537.36";
 
+    private static final Pattern SPOTIFY_ID_PATTERN = Pattern.compile(
+        "https://open\\.spotify\\.com/(album|playlist|artist|track)/([a-zA-Z0-9]+)(/?|\\?.*)?",
+        Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern SPOTIFY_LOCALE_PREFIX = Pattern.compile("^/intl-[a-zA-Z-]+/");
+
+    /**
+     * Rewrites urls of well known hosts into a single canonical form, so the same media captured
+     * through a short link, a mobile page or with tracking parameters is recognized as one.
+     * Anything else is returned unchanged.
+     */
+    public static String canonicalizeUrl(String urlIn) {
+        return canonicalizeUrl(ParsedUrl.parse(urlIn.trim()), urlIn);
+    }
+
+    /**
+     * @see #canonicalizeUrl(String)
+     */
+    public static String canonicalizeUrl(ParsedUrl parsedUrl) {
+        return canonicalizeUrl(parsedUrl, parsedUrl.getUrl());
+    }
+
+    private static String canonicalizeUrl(ParsedUrl parsedUrl, String urlIn) {
+        String host = parsedUrl.getHost();
+        if (host == null) {
+            return urlIn;
+        }
+
+        String path = parsedUrl.getRawPath();
+
+        switch (host.toLowerCase()) {
+            case "youtu.be", "www.youtu.be" -> {
+                String videoId = parsedUrl.getPathSegment(0);
+                if (videoId != null) {
+                    return buildYoutubeWatchUrl(videoId, parsedUrl.getParameter("list"));
+                }
+            }
+            case "youtube.com", "www.youtube.com", "m.youtube.com" -> {
+                if (path.equals("/watch") && parsedUrl.getParameter("v") != null) {
+                    return buildYoutubeWatchUrl(parsedUrl.getParameter("v"), parsedUrl.getParameter("list"));
+                }
+
+                if (path.startsWith("/shorts/")) {
+                    String videoId = parsedUrl.getPathSegment(1);
+                    if (videoId != null) {
+                        return buildYoutubeWatchUrl(videoId, null);
+                    }
+                }
+
+                if (path.equals("/playlist") && parsedUrl.getParameter("list") != null) {
+                    return "https://www.youtube.com/playlist?list=" + parsedUrl.getParameter("list");
+                }
+
+                String rawQuery = parsedUrl.getRawQuery();
+                return "https://www.youtube.com" + path + (rawQuery != null ? "?" + rawQuery : "");
+            }
+            case "open.spotify.com" -> {
+                // Share links carry a tracking id and sometimes a locale prefix, neither changes the content
+                String canonicalPath = SPOTIFY_LOCALE_PREFIX.matcher(path).replaceFirst("/");
+                if (canonicalPath.length() > 1 && canonicalPath.endsWith("/")) {
+                    canonicalPath = canonicalPath.substring(0, canonicalPath.length() - 1);
+                }
+
+                return "https://open.spotify.com" + canonicalPath;
+            }
+        }
+
+        return urlIn;
+    }
+
+    private static String buildYoutubeWatchUrl(String videoId, @Nullable String playlistId) {
+        return "https://www.youtube.com/watch?v=" + videoId
+            + (playlistId != null ? "&list=" + playlistId : "");
+    }
+
     @Nullable
     public static String getHostName(String urlIn) {
-        try {
-            URL url = new URI(urlIn).toURL();
-            return url.getHost();
-        } catch (Exception e) {
-            log.debug("Invalid url {}", urlIn, e.getMessage());
+        String host = ParsedUrl.parse(urlIn).getHost();
+        if (host == null) {
+            log.debug("Invalid url {}", urlIn);
         }
 
-        return null;
+        return host;
     }
 
     @Nullable
     public static String getVideoId(String youtubeUrl) {
-        try {
-            URL url = new URI(youtubeUrl).toURL();
-            String host = url.getHost();
+        return getVideoId(ParsedUrl.parse(youtubeUrl));
+    }
 
-            if (host != null && host.contains("youtube.com")) {
-                String videoId = getParameter(url, "v");
-                if (videoId != null) {
-                    return videoId;
-                }
-            }
-        } catch (Exception e) {
-            log.debug("Invalid url {}", youtubeUrl, e.getMessage());
+    @Nullable
+    public static String getVideoId(ParsedUrl youtubeUrl) {
+        String host = youtubeUrl.getHost();
+
+        if (host != null && host.contains("youtube.com")) {
+            return youtubeUrl.getParameter("v");
         }
 
         return null;
@@ -70,47 +140,64 @@ public final class URLUtils {
 
     @Nullable
     public static String filterVideo(String youtubeUrl) {
+        return filterVideo(ParsedUrl.parse(youtubeUrl));
+    }
+
+    @Nullable
+    public static String filterVideo(ParsedUrl youtubeUrl) {
         String videoId = getVideoId(youtubeUrl);
         if (videoId != null) {
             return "https://www.youtube.com/watch?v=" + videoId;
         }
 
-        return youtubeUrl;
+        return youtubeUrl.getUrl();
     }
 
     @Nullable
     public static String filterPlaylist(String youtubeUrl) {
-        try {
-            URL url = new URI(youtubeUrl).toURL();
-            String host = url.getHost();
+        return filterPlaylist(ParsedUrl.parse(youtubeUrl));
+    }
 
-            if (host != null && host.contains("youtube.com")) {
-                String videoId = getParameter(url, "list");
-                if (videoId != null) {
-                    return "https://www.youtube.com/playlist?list=" + videoId;
-                }
-            }
+    @Nullable
+    public static String filterPlaylist(ParsedUrl youtubeUrl) {
+        if (!youtubeUrl.isValid()) {
+            log.debug("Invalid url {}", youtubeUrl);
+            return null;
+        }
 
-            return youtubeUrl;
-        } catch (MalformedURLException | URISyntaxException e) {
-            log.debug("Invalid url {} {}", youtubeUrl, e.getMessage());
+        String host = youtubeUrl.getHost();
+        if (host != null && host.contains("youtube.com")) {
+            String playlistId = youtubeUrl.getParameter("list");
+            if (playlistId != null) {
+                return "https://www.youtube.com/playlist?list=" + playlistId;
+            }
         }
 
-        return null;
+        return youtubeUrl.getUrl();
     }
 
     @Nullable
     public static String getParameter(URL url, String parameterName) {
         String query = url.getQuery();
+        if (query == null) {
+            return null;
+        }
 
-        if (query != null) {
-            String[] params = query.split("&");
-            for (String param : params) {
-                String[] keyValue = param.split("=");
-                if (keyValue.length == 2 && keyValue[0].equals(parameterName)) {
-                    return keyValue[1];
-                }
+        int start = 0;
+        while (start <= query.length()) {
+            int end = query.indexOf('&', start);
+            if (end == -1) {
+                end = query.length();
             }
+
+            int separator = query.indexOf('=', start);
+            if (separator > start && separator < end - 1
+                && separator - start == parameterName.length()
+                && query.startsWith(parameterName, start)) {
+                return query.substring(separator + 1, end);
+            }
+
+            start = end + 1;
         }
 
         return null;
@@ -150,11 +237,7 @@ public final class URLUtils {
 
     @Nullable
     public static String getSpotifyTrackId(@NonNull String spotifyUrl) {
-        Pattern pattern = Pattern.compile(
-            "https://open\\.spotify\\.com/(album|playlist|artist|track)/([a-zA-Z0-9]+)(/?|\\?.*)?",
-            Pattern.CASE_INSENSITIVE);
-
-        Matcher matcher = pattern.matcher(spotifyUrl);
+        Matcher matcher = SPOTIFY_ID_PATTERN.matcher(spotifyUrl);
 
         if (matcher.find()) {
             return matcher.group(2);
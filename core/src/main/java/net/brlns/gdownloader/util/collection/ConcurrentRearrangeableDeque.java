@@ -17,7 +17,9 @@
 package net.brlns.gdownloader.util.collection;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
@@ -180,5 +182,25 @@ public class ConcurrentRearrangeableDeque<T> extends ArrayDeque<T> {
         }
     }
 
+    /**
+     * Returns a snapshot of up to the given number of items from the head of the deque.
+     */
+    public List<T> head(int count) {
+        lock.readLock().lock();
+
+        try {
+            List<T> items = new ArrayList<>(Math.min(count, super.size()));
+
+            Iterator<T> it = this.iterator();
+            while (it.hasNext() && items.size() < count) {
+                items.add(it.next());
+            }
+
+            return items;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     // TODO UnsupportedOperationException for the rest of the overridable methods
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2025 hstr0100
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.brlns.gdownloader.util.collection;
+
+import jakarta.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A fixed-capacity FIFO buffer. Once full, each new element overwrites the oldest one,
+ * which is handed back to the caller so it can be spilled elsewhere.
+ *
+ * @author Gabriel / hstr0100 / vertx010
+ */
+public class RingBuffer<T> implements Iterable<T> {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Object[] elements;
+
+    private int head;
+    private int size;
+
+    public RingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        elements = new Object[capacity];
+    }
+
+    /**
+     * @return the element that was evicted to make room for the new one, or null if there was still space.
+     */
+    @Nullable
+    public T add(T element) {
+        lock.writeLock().lock();
+        try {
+            int tail = (head + size) % elements.length;
+
+            if (size < elements.length) {
+                elements[tail] = element;
+                size++;
+
+                return null;
+            }
+
+            @SuppressWarnings("unchecked")
+            T evicted = (T)elements[head];
+
+            elements[head] = element;
+            head = (head + 1) % elements.length;
+
+            return evicted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public T peekLast() {
+        lock.readLock().lock();
+        try {
+            if (size == 0) {
+                return null;
+            }
+
+            return (T)elements[(head + size - 1) % elements.length];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public ArrayList<T> snapshotAsList() {
+        lock.readLock().lock();
+        try {
+            ArrayList<T> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add((T)elements[(head + i) % elements.length]);
+            }
+
+            return list;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = null;
+            }
+
+            head = 0;
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<T> iterator = snapshotAsList().iterator();
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return iterator.next();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,125 @@
+package net.brlns.gdownloader;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import net.brlns.gdownloader.clipboard.ClipboardUrlExtractor;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClipboardUrlExtractorTest {
+
+    @Test
+    void testPlainTextUrls() {
+        Set<String> urls = ClipboardUrlExtractor.extractFromText(
+            "check https://www.youtube.com/watch?v=dQw4w9WgXcQ and\nhttp://example.com/a?b=c\tdone");
+
+        assertEquals(List.of("https://www.youtube.com/watch?v=dQw4w9WgXcQ", "http://example.com/a?b=c"),
+            List.copyOf(urls));
+    }
+
+    @Test
+    void testUrlsInsideMarkupAreCut() {
+        Set<String> urls = ClipboardUrlExtractor.extractFromText(
+            "<a href=\"https://example.com/video\">x</a> 'https://example.com/quoted'");
+
+        assertEquals(Set.of("https://example.com/video", "https://example.com/quoted"), urls);
+    }
+
+    @Test
+    void testInvalidCandidatesAreDropped() {
+        Set<String> urls = ClipboardUrlExtractor.extractFromText("httpd is not a url, neither is http:// alone");
+
+        assertTrue(urls.isEmpty(), urls.toString());
+    }
+
+    @Test
+    void testMagnetLinks() {
+        String magnet = "magnet:?xt=urn:btih:c9e15763f722f23e98a29decdfae341b98d53056&dn=Test";
+
+        assertEquals(Set.of(magnet), ClipboardUrlExtractor.extractFromText("see " + magnet));
+    }
+
+    @Test
+    void testHtmlLinksAndMedia() {
+        String html = "<html><body><a href=\"https://example.com/page\">link</a>"
+            + "<img src=\"https://example.com/image.png\"></body></html>";
+
+        assertEquals(Set.of("https://example.com/page", "https://example.com/image.png"),
+            ClipboardUrlExtractor.extractFromHtml(html));
+    }
+
+    @Test
+    void testHtmlWithoutLinksFallsBackToText() {
+        String html = "<p>Watch this: https://www.youtube.com/watch?v=dQw4w9WgXcQ</p>";
+
+        assertEquals(Set.of("https://www.youtube.com/watch?v=dQw4w9WgXcQ"),
+            ClipboardUrlExtractor.extractFromHtml(html));
+    }
+
+    @Test
+    void testLargeHtmlIsScannedAsText() {
+        StringBuilder html = new StringBuilder();
+        while (html.length() <= ClipboardUrlExtractor.MAX_HTML_PARSE_LENGTH) {
+            html.append("<div class=\"row\"><span>filler text</span></div>\n");
+        }
+
+        html.append("<a href=\"https://example.com/late\">late</a>");
+
+        assertEquals(Set.of("https://example.com/late"), ClipboardUrlExtractor.extractFromHtml(html.toString()));
+    }
+
+    @Test
+    void testScanIsCapped() {
+        StringBuilder text = new StringBuilder();
+        text.append("https://example.com/early ");
+        text.append("x".repeat(ClipboardUrlExtractor.MAX_SCAN_LENGTH));
+        text.append(" https://example.com/beyond");
+
+        assertEquals(Set.of("https://example.com/early"), ClipboardUrlExtractor.extractFromText(text));
+    }
+
+    private static Set<String> legacyExtract(String content) {
+        Set<String> result = new java.util.HashSet<>();
+
+        var doc = Jsoup.parse(content);
+        var links = doc.select("a[href]");
+        var media = doc.select("[src]");
+
+        if (links.isEmpty() && media.isEmpty()) {
+            Matcher matcher = Pattern.compile("(http[^\\s]*|magnet:[^\\s]*)(?=\\s|$|http|magnet:)").matcher(content);
+            while (matcher.find()) {
+                result.add(matcher.group(1));
+            }
+        }
+
+        links.forEach(link -> result.add(link.attr("href")));
+        media.forEach(src -> result.add(src.attr("src")));
+
+        return result;
+    }
+
+    @Test
+    void testLargeClipboardMatchesLegacyExtraction() {
+        // Something like a large source file copied out of an editor, with a couple of urls in comments
+        StringBuilder builder = new StringBuilder();
+        int line = 0;
+        while (builder.length() < 4 * 1024 * 1024) {
+            builder.append("    private static final int VALUE_").append(line).append(" = compute(a, b);\n");
+
+            if (++line % 20000 == 0) {
+                builder.append("    // See https://example.com/issues/").append(line).append('\n');
+            }
+        }
+
+        String text = builder.toString();
+
+        Set<String> scanned = ClipboardUrlExtractor.extractFromText(text);
+
+        assertEquals(line / 20000, scanned.size());
+        assertEquals(legacyExtract(text), scanned);
+    }
+}
@@ -0,0 +1,152 @@
+package net.brlns.gdownloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import net.brlns.gdownloader.downloader.DownloadArchive;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DownloadArchiveTest {
+
+    private Path directory;
+    private File textFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("archive-test");
+        textFile = directory.resolve("yt-dlp_archive_video.txt").toFile();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> stream = Files.walk(directory)) {
+            stream.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private DownloadArchive open() {
+        return new DownloadArchive(textFile, line -> line.substring(line.lastIndexOf(' ') + 1));
+    }
+
+    private void appendText(String text) throws IOException {
+        Files.writeString(textFile.toPath(), text, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private List<String> readText() throws IOException {
+        return Files.readAllLines(textFile.toPath(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testIndexesExistingTextArchive() throws IOException {
+        appendText("youtube aaa\nyoutube bbb\n");
+
+        DownloadArchive archive = open();
+
+        assertTrue(archive.contains("aaa"));
+        assertTrue(archive.contains("bbb"));
+        assertFalse(archive.contains("ccc"));
+        assertEquals(2, archive.size());
+    }
+
+    @Test
+    void testPicksUpLinesAppendedByDownloader() throws IOException {
+        appendText("youtube aaa\n");
+
+        DownloadArchive archive = open();
+        assertFalse(archive.contains("bbb"));
+
+        appendText("youtube bbb\nyoutube cc");
+        assertTrue(archive.contains("bbb"));
+        assertFalse(archive.contains("cc"), "Unterminated lines should wait until completed");
+
+        appendText("c\n");
+        assertTrue(archive.contains("ccc"));
+    }
+
+    @Test
+    void testRemovalOnlyRewritesTextOnExport() throws IOException {
+        appendText("youtube aaa\nyoutube bbb\n");
+
+        DownloadArchive archive = open();
+        assertTrue(archive.remove("aaa"));
+        assertFalse(archive.remove("aaa"));
+        assertFalse(archive.contains("aaa"));
+
+        assertEquals(List.of("youtube aaa", "youtube bbb"), readText());
+
+        archive.export();
+        assertEquals(List.of("youtube bbb"), readText());
+    }
+
+    @Test
+    void testTombstonesSurviveRestart() throws IOException {
+        appendText("youtube aaa\nyoutube bbb\n");
+
+        open().remove("aaa");
+
+        DownloadArchive reopened = open();
+        assertFalse(reopened.contains("aaa"));
+        assertTrue(reopened.contains("bbb"));
+
+        reopened.export();
+        assertEquals(List.of("youtube bbb"), readText());
+    }
+
+    @Test
+    void testSameIdFromDifferentExtractors() throws IOException {
+        appendText("youtube aaa\nvimeo aaa\n");
+
+        DownloadArchive archive = open();
+        assertEquals(2, archive.size());
+
+        archive.remove("aaa");
+        assertEquals(0, archive.size());
+    }
+
+    @Test
+    void testExternalRewriteIsReindexed() throws IOException {
+        appendText("youtube aaa\nyoutube bbb\n");
+
+        DownloadArchive archive = open();
+        assertTrue(archive.contains("aaa"));
+
+        Files.writeString(textFile.toPath(), "youtube c\n", StandardCharsets.UTF_8);
+
+        assertFalse(archive.contains("aaa"));
+        assertTrue(archive.contains("c"));
+    }
+
+    @Test
+    void testCompaction() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            builder.append("youtube ").append(i).append('\n');
+        }
+
+        appendText(builder.toString());
+
+        DownloadArchive archive = open();
+        for (int i = 0; i < 2900; i++) {
+            archive.remove(String.valueOf(i));
+        }
+
+        File journal = new File(directory.toFile(), textFile.getName() + ".journal");
+        assertTrue(Files.readAllLines(journal.toPath()).size() < 3000, "Journal should have been compacted");
+
+        DownloadArchive reopened = open();
+        assertEquals(100, reopened.size());
+        assertTrue(reopened.contains("2999"));
+        assertFalse(reopened.contains("0"));
+    }
+}
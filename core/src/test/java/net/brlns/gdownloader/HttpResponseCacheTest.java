@@ -0,0 +1,151 @@
+package net.brlns.gdownloader;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import net.brlns.gdownloader.util.HttpResponseCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpResponseCacheTest {
+
+    private static final String LAST_MODIFIED = "Wed, 01 Jan 2025 00:00:00 GMT";
+
+    private HttpServer server;
+    private File directory;
+    private HttpResponseCache cache;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final AtomicReference<String> body = new AtomicReference<>("first");
+    private final AtomicReference<String> lastIfModifiedSince = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/resource", exchange -> {
+            requests.incrementAndGet();
+
+            String current = body.get();
+            String etag = "\"" + current.hashCode() + "\"";
+
+            lastIfModifiedSince.set(exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+
+            byte[] bytes = current.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("ETag", etag);
+            exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+            exchange.sendResponseHeaders(200, bytes.length);
+
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+
+        directory = Files.createTempDirectory("http_cache").toFile();
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+        cache = new HttpResponseCache(directory, client);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+
+        directory.delete();
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    @Test
+    void testFreshCopyIsServedWithoutRequest() {
+        assertEquals(Optional.of("first"), cache.get(url("/resource"), Duration.ofHours(1)));
+        assertEquals(Optional.of("first"), cache.get(url("/resource"), Duration.ofHours(1)));
+
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void testStaleCopyIsRevalidated() {
+        cache.get(url("/resource"), Duration.ZERO);
+
+        assertEquals(Optional.of("first"), cache.get(url("/resource"), Duration.ZERO));
+
+        assertEquals(2, requests.get());
+        assertEquals(1, notModified.get());
+        assertEquals(LAST_MODIFIED, lastIfModifiedSince.get());
+    }
+
+    @Test
+    void testChangedResourceReplacesCachedCopy() {
+        cache.get(url("/resource"), Duration.ZERO);
+
+        body.set("second");
+
+        assertEquals(Optional.of("second"), cache.get(url("/resource"), Duration.ZERO));
+        assertEquals(Optional.of("second"), cache.peek(url("/resource")));
+        assertEquals(0, notModified.get());
+    }
+
+    @Test
+    void testCachedCopyIsUsedWhenOffline() {
+        String url = url("/resource");
+        cache.get(url, Duration.ZERO);
+
+        server.stop(0);
+
+        assertEquals(Optional.of("first"), cache.get(url, Duration.ZERO));
+    }
+
+    @Test
+    void testCacheSurvivesNewInstance() {
+        cache.get(url("/resource"), Duration.ZERO);
+
+        HttpResponseCache reopened = new HttpResponseCache(directory, HttpClient.newHttpClient());
+
+        assertEquals(Optional.of("first"), reopened.peek(url("/resource")));
+        assertEquals(Optional.of("first"), reopened.get(url("/resource"), Duration.ofHours(1)));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void testErrorResponsesAreNotCached() {
+        assertEquals(Optional.empty(), cache.get(url("/missing"), Duration.ofHours(1)));
+        assertEquals(Optional.empty(), cache.peek(url("/missing")));
+    }
+}
@@ -0,0 +1,96 @@
+package net.brlns.gdownloader;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import net.brlns.gdownloader.util.ImageUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageUtilsTest {
+
+    private static final int TARGET_WIDTH = 240;
+
+    private static byte[] sampleImage(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+        // Smooth content, like most video frames, with a few hard edges
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(200, 40, 40), width, height, new Color(30, 90, 220)));
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.WHITE);
+        g.fillOval(width / 4, height / 4, width / 2, height / 2);
+        g.dispose();
+
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            ImageIO.write(image, format, bos);
+
+            return bos.toByteArray();
+        }
+    }
+
+    private static BufferedImage fullDecode(byte[] bytes) throws IOException {
+        return ImageUtils.downscaleImage(ImageIO.read(new ByteArrayInputStream(bytes)), TARGET_WIDTH);
+    }
+
+    private static double meanDifference(BufferedImage a, BufferedImage b) {
+        long total = 0;
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                int pa = a.getRGB(x, y);
+                int pb = b.getRGB(x, y);
+
+                total += Math.abs(((pa >> 16) & 0xff) - ((pb >> 16) & 0xff));
+                total += Math.abs(((pa >> 8) & 0xff) - ((pb >> 8) & 0xff));
+                total += Math.abs((pa & 0xff) - (pb & 0xff));
+            }
+        }
+
+        return (double)total / (a.getWidth() * a.getHeight() * 3);
+    }
+
+    @Test
+    void testDecodesToTargetWidth() throws IOException {
+        BufferedImage image = ImageUtils.decodeDownscaled(sampleImage(1280, 720, "jpg"), TARGET_WIDTH);
+
+        assertNotNull(image);
+        assertEquals(TARGET_WIDTH, image.getWidth());
+        assertEquals(135, image.getHeight());
+    }
+
+    @Test
+    void testSmallImagesAreNotUpscaled() throws IOException {
+        BufferedImage image = ImageUtils.decodeDownscaled(sampleImage(160, 90, "png"), TARGET_WIDTH);
+
+        assertNotNull(image);
+        assertEquals(160, image.getWidth());
+        assertEquals(90, image.getHeight());
+    }
+
+    @Test
+    void testSubsampledDecodeMatchesFullDecode() throws IOException {
+        for (int width : new int[]{480, 1280, 1920}) {
+            byte[] bytes = sampleImage(width, width * 9 / 16, "jpg");
+
+            BufferedImage subsampled = ImageUtils.decodeDownscaled(bytes, TARGET_WIDTH);
+            BufferedImage full = fullDecode(bytes);
+
+            assertEquals(full.getWidth(), subsampled.getWidth());
+            assertEquals(full.getHeight(), subsampled.getHeight());
+
+            double difference = meanDifference(full, subsampled);
+            assertTrue(difference < 4, "Mean channel difference too high for " + width + "px: " + difference);
+        }
+    }
+
+    @Test
+    void testUnreadableDataReturnsNull() throws IOException {
+        assertNull(ImageUtils.decodeDownscaled(new byte[]{1, 2, 3, 4, 5}, TARGET_WIDTH));
+    }
+}
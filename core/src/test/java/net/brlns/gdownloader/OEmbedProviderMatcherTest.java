@@ -0,0 +1,102 @@
+package net.brlns.gdownloader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import net.brlns.gdownloader.downloader.extractors.OEmbedProviderMatcher;
+import net.brlns.gdownloader.downloader.extractors.OEmbedProviders.Endpoint;
+import net.brlns.gdownloader.downloader.extractors.OEmbedProviders.Provider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OEmbedProviderMatcherTest {
+
+    private static Provider provider(String name, String... schemes) {
+        Endpoint endpoint = new Endpoint(List.of(schemes), "https://" + name + ".example/oembed", List.of("json"), false);
+
+        return new Provider(name, "https://" + name + ".example", List.of(endpoint));
+    }
+
+    private static List<Provider> providers() {
+        List<Provider> providers = new ArrayList<>();
+        providers.add(provider("YouTube", "https://*.youtube.com/watch*", "https://youtu.be/*"));
+        providers.add(provider("Flickr", "http://*.flickr.com/photos/*", "https://flic.kr/p/*"));
+        providers.add(provider("Vimeo", "https://vimeo.com/*", "https://player.vimeo.com/video/*"));
+        providers.add(provider("Odd", "https://media*.odd.example/*"));
+        providers.add(provider("Catchall", "https://*/catchall/*"));
+
+        // Padding, roughly the size of the real providers.json
+        for (int i = 0; i < 400; i++) {
+            providers.add(provider("p" + i, "https://www.provider" + i + ".com/*", "https://*.provider" + i + ".net/video/*"));
+        }
+
+        return providers;
+    }
+
+    private static String linearMatch(List<Provider> providers, String url) {
+        for (Provider provider : providers) {
+            for (Endpoint endpoint : provider.getEndpoints()) {
+                for (String scheme : endpoint.getSchemes()) {
+                    String regex = "^" + Pattern.quote(scheme)
+                        .replace("*", "\\E.*\\Q")
+                        .replace("\\Q\\E", "") + "$";
+
+                    if (Pattern.compile(regex).matcher(url).matches()) {
+                        return provider.getProviderName();
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static String indexedMatch(OEmbedProviderMatcher matcher, String url) {
+        return matcher.match(url).map(OEmbedProviderMatcher.Match::getProviderName).orElse(null);
+    }
+
+    private static final List<String> URLS = List.of(
+        "https://www.youtube.com/watch?v=dQw4w9WgXcQ",
+        "https://m.youtube.com/watch?v=dQw4w9WgXcQ",
+        "https://youtu.be/dQw4w9WgXcQ",
+        "https://www.youtube.com/playlist?list=PL123",
+        "http://www.flickr.com/photos/someone/123",
+        "https://flic.kr/p/abc",
+        "https://vimeo.com/123456",
+        "https://player.vimeo.com/video/123456",
+        "https://media12.odd.example/clip",
+        "https://unrelated.org/catchall/thing",
+        "https://www.provider123.com/anything",
+        "https://cdn.eu.provider321.net/video/1",
+        "https://provider321.net/video/1",
+        "https://nothing.example.org/",
+        "not a url");
+
+    @Test
+    void testMatchesSameProvidersAsLinearScan() {
+        List<Provider> providers = providers();
+        OEmbedProviderMatcher matcher = new OEmbedProviderMatcher(providers);
+
+        for (String url : URLS) {
+            assertEquals(linearMatch(providers, url), indexedMatch(matcher, url), url);
+        }
+    }
+
+    @Test
+    void testFirstListedProviderWins() {
+        List<Provider> providers = List.of(
+            provider("Generic", "https://*/video/*"),
+            provider("Specific", "https://www.site.com/video/*"));
+
+        OEmbedProviderMatcher matcher = new OEmbedProviderMatcher(providers);
+
+        assertEquals("Generic", indexedMatch(matcher, "https://www.site.com/video/1"));
+    }
+
+    @Test
+    void testEmptyMatcher() {
+        assertEquals(Optional.empty(), OEmbedProviderMatcher.EMPTY.match("https://www.youtube.com/watch?v=1"));
+    }
+}
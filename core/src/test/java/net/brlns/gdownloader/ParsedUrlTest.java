@@ -0,0 +1,67 @@
+package net.brlns.gdownloader;
+
+import java.util.List;
+import net.brlns.gdownloader.util.ParsedUrl;
+import net.brlns.gdownloader.util.URLUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParsedUrlTest {
+
+    @Test
+    void testComponents() {
+        ParsedUrl url = ParsedUrl.parse("https://www.youtube.com/watch?v=dQw4w9WgXcQ&list=PL123");
+
+        assertTrue(url.isValid());
+        assertEquals("https", url.getScheme());
+        assertEquals("www.youtube.com", url.getHost());
+        assertEquals("/watch", url.getRawPath());
+        assertEquals("v=dQw4w9WgXcQ&list=PL123", url.getRawQuery());
+    }
+
+    @Test
+    void testQueryParameters() {
+        ParsedUrl url = ParsedUrl.parse("https://example.com/?a=1&empty=&a=2&=orphan&flag&b=x%20y");
+
+        assertEquals("1", url.getParameter("a"));
+        assertNull(url.getParameter("empty"));
+        assertNull(url.getParameter("flag"));
+        assertEquals("x%20y", url.getParameter("b"));
+        assertEquals(List.of("a", "b"), List.copyOf(url.getQueryParameters().keySet()));
+    }
+
+    @Test
+    void testPathSegments() {
+        ParsedUrl url = ParsedUrl.parse("https://open.spotify.com//intl-pt/track/0heJlRkloNhkrBU9ROnM9Y/");
+
+        assertEquals("intl-pt", url.getPathSegment(0));
+        assertEquals("0heJlRkloNhkrBU9ROnM9Y", url.getPathSegment(2));
+        assertNull(url.getPathSegment(3));
+    }
+
+    @Test
+    void testInvalidUrlKeepsOriginal() {
+        ParsedUrl url = ParsedUrl.parse("https://example.com/<>");
+
+        assertFalse(url.isValid());
+        assertNull(url.getHost());
+        assertNull(url.getParameter("a"));
+        assertEquals("https://example.com/<>", url.getUrl());
+    }
+
+    @Test
+    void testYoutubeHelpersShareOneParse() {
+        ParsedUrl url = ParsedUrl.parse("https://www.youtube.com/watch?v=dQw4w9WgXcQ&list=PL123");
+
+        assertEquals("dQw4w9WgXcQ", URLUtils.getVideoId(url));
+        assertEquals("https://www.youtube.com/watch?v=dQw4w9WgXcQ", URLUtils.filterVideo(url));
+        assertEquals("https://www.youtube.com/playlist?list=PL123", URLUtils.filterPlaylist(url));
+        assertEquals("https://www.youtube.com/watch?v=dQw4w9WgXcQ&list=PL123", URLUtils.canonicalizeUrl(url));
+
+        ParsedUrl other = ParsedUrl.parse("https://vimeo.com/12345");
+        assertNull(URLUtils.getVideoId(other));
+        assertEquals("https://vimeo.com/12345", URLUtils.filterVideo(other));
+        assertEquals("https://vimeo.com/12345", URLUtils.filterPlaylist(other));
+    }
+}
@@ -0,0 +1,145 @@
+package net.brlns.gdownloader;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import net.brlns.gdownloader.downloader.structs.MediaInfo;
+import net.brlns.gdownloader.util.ProjectedJsonReader;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectedJsonReaderTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Info {
+
+        @JsonProperty("id")
+        public String id;
+
+        @JsonProperty("title")
+        public String title;
+
+        @JsonProperty("duration")
+        public long duration;
+
+        @JsonProperty("thumbnails")
+        public List<Thumb> thumbnails = new ArrayList<>();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Thumb {
+
+        @JsonProperty("url")
+        public String url;
+
+        @JsonProperty("preference")
+        public int preference;
+    }
+
+    private static byte[] readSample(String name) throws IOException {
+        try (InputStream inputStream = ProjectedJsonReaderTest.class.getResourceAsStream("/ytdlp/" + name)) {
+            assertNotNull(inputStream, "Missing sample " + name);
+
+            return inputStream.readAllBytes();
+        }
+    }
+
+    @Test
+    void testProjectsDeclaredProperties() {
+        ProjectedJsonReader<Info> reader = new ProjectedJsonReader<>(MAPPER, Info.class);
+
+        assertEquals(Set.of("id", "title", "duration", "thumbnails"), reader.getProperties());
+    }
+
+    @Test
+    void testProjectsVideoSample() throws IOException {
+        byte[] json = readSample("youtube_video.json");
+        ProjectedJsonReader<MediaInfo> reader = new ProjectedJsonReader<>(MAPPER, MediaInfo.class);
+
+        MediaInfo info = reader.readFirst(new ByteArrayInputStream(json)).orElseThrow();
+
+        assertEquals("gD0wnL0ader", info.getId());
+        assertEquals("Sample upload \u2013 \"quoted\" title \u65e5\u672c\u8a9e", info.getTitle());
+        assertEquals("", info.getPlaylistTitle());
+        assertEquals("youtube", info.getExtractor());
+        assertEquals("Youtube", info.getExtractorKey());
+        assertEquals("https://i.ytimg.com/vi_webp/gD0wnL0ader/maxresdefault.webp", info.getThumbnail());
+        assertEquals(10, info.getThumbnails().size());
+        assertEquals("UCsample0channel0id00000", info.getChannelId());
+        assertEquals(212, info.getDuration());
+        assertEquals(1523467, info.getViewCount());
+        assertEquals("20240610", info.getUploadDate());
+        assertEquals(1718035200, info.getTimestamp());
+        assertEquals(1920, info.getWidth());
+        assertEquals(1080, info.getHeight());
+        assertEquals("1920x1080", info.getResolution());
+        assertEquals(3481236, info.getFilesizeApprox());
+        assertEquals(60, info.getFps());
+
+        assertEquals("youtube gD0wnL0ader", info.getMediaIdentity());
+        assertEquals(List.of(
+            "https://i.ytimg.com/vi_webp/gD0wnL0ader/maxresdefault.webp",
+            "https://i.ytimg.com/vi/gD0wnL0ader/maxresdefault.jpg",
+            "https://i.ytimg.com/vi/gD0wnL0ader/sddefault.jpg",
+            "https://i.ytimg.com/vi_webp/gD0wnL0ader/maxresdefault.webp",
+            "https://i.ytimg.com/vi_webp/gD0wnL0ader/sddefault.webp"
+        ), info.supportedThumbnails().toList());
+
+        // Nothing the full binding would have read may be lost
+        assertEquals(MAPPER.readValue(json, MediaInfo.class), info);
+    }
+
+    @Test
+    void testProjectsPlaylistItemSample() throws IOException {
+        byte[] json = readSample("youtube_playlist_item.json");
+        ProjectedJsonReader<MediaInfo> reader = new ProjectedJsonReader<>(MAPPER, MediaInfo.class);
+
+        MediaInfo info = reader.readFirst(new ByteArrayInputStream(json)).orElseThrow();
+
+        assertEquals("pL4yl1st0It", info.getId());
+        assertEquals("First item of the playlist", info.getTitle());
+        assertEquals("Sample playlist", info.getPlaylistTitle());
+        assertEquals("youtube:tab", info.getExtractor());
+        assertEquals("YoutubeTab", info.getExtractorKey());
+        assertEquals("", info.getThumbnail());
+        assertEquals(4, info.getThumbnails().size());
+        assertEquals(615, info.getDuration());
+        assertEquals(48213, info.getViewCount());
+        assertNull(info.getUploadDate());
+        assertNull(info.getDescription());
+
+        // A playlist query only returns its first item, which does not identify the playlist
+        assertNull(info.getMediaIdentity());
+        assertTrue(info.isValid());
+
+        assertEquals(MAPPER.readValue(json, MediaInfo.class), info);
+    }
+
+    @Test
+    void testReadsFirstOfSeveralLines() throws IOException {
+        String json = "{\"id\":\"first\",\"formats\":[{\"url\":\"a\"}]}\n{\"id\":\"second\"}\n";
+        ProjectedJsonReader<Info> reader = new ProjectedJsonReader<>(MAPPER, Info.class);
+
+        Optional<Info> info = reader.readFirst(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("first", info.orElseThrow().id);
+    }
+
+    @Test
+    void testEmptyStream() throws IOException {
+        ProjectedJsonReader<Info> reader = new ProjectedJsonReader<>(MAPPER, Info.class);
+
+        assertTrue(reader.readFirst(new ByteArrayInputStream(new byte[0])).isEmpty());
+    }
+}
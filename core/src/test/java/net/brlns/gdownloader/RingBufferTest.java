@@ -0,0 +1,82 @@
+package net.brlns.gdownloader;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.brlns.gdownloader.util.collection.RingBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void testAddBelowCapacityEvictsNothing() {
+        RingBuffer<String> buffer = new RingBuffer<>(3);
+
+        assertNull(buffer.add("a"));
+        assertNull(buffer.add("b"));
+
+        assertEquals(2, buffer.size());
+        assertEquals(List.of("a", "b"), buffer.snapshotAsList());
+    }
+
+    @Test
+    void testAddAtCapacityEvictsOldest() {
+        RingBuffer<String> buffer = new RingBuffer<>(3);
+
+        buffer.add("a");
+        buffer.add("b");
+        buffer.add("c");
+
+        assertEquals("a", buffer.add("d"));
+        assertEquals("b", buffer.add("e"));
+
+        assertEquals(3, buffer.size());
+        assertEquals(List.of("c", "d", "e"), buffer.snapshotAsList());
+    }
+
+    @Test
+    void testPeekLast() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(2);
+        assertNull(buffer.peekLast());
+
+        for (int i = 0; i < 5; i++) {
+            buffer.add(i);
+            assertEquals(Integer.valueOf(i), buffer.peekLast());
+        }
+    }
+
+    @Test
+    void testIterationOrderAfterWrapAround() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 10; i++) {
+            buffer.add(i);
+        }
+
+        List<Integer> iterated = new ArrayList<>();
+        for (Integer value : buffer) {
+            iterated.add(value);
+        }
+
+        assertEquals(List.of(6, 7, 8, 9), iterated);
+    }
+
+    @Test
+    void testClear() {
+        RingBuffer<String> buffer = new RingBuffer<>(2);
+        buffer.add("a");
+        buffer.add("b");
+        buffer.add("c");
+
+        buffer.clear();
+
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.add("d"));
+        assertEquals(List.of("d"), buffer.snapshotAsList());
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(0));
+    }
+}
@@ -0,0 +1,126 @@
+package net.brlns.gdownloader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import net.brlns.gdownloader.util.StreamingLineDecoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingLineDecoderTest {
+
+    private StreamingLineDecoder decoder;
+    private List<String> lines;
+
+    @BeforeEach
+    void setUp() {
+        decoder = new StreamingLineDecoder();
+        lines = new ArrayList<>();
+    }
+
+    private void feed(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        decoder.feed(bytes, 0, bytes.length, line -> lines.add(line.toString()));
+    }
+
+    private void finish() {
+        decoder.finish(line -> lines.add(line.toString()));
+    }
+
+    @Test
+    void testSplitsOnLineFeed() {
+        feed("first\nsecond\n");
+
+        assertEquals(List.of("first", "second"), lines);
+    }
+
+    @Test
+    void testCarriageReturnTerminatesProgressLines() {
+        feed("[download]  10.0%\r[download]  20.0%\r[download] 100.0%\n");
+
+        assertEquals(List.of("[download]  10.0%", "[download]  20.0%", "[download] 100.0%"), lines);
+    }
+
+    @Test
+    void testCrLfIsASingleTerminator() {
+        feed("first\r\nsecond\r\n");
+
+        assertEquals(List.of("first", "second"), lines);
+    }
+
+    @Test
+    void testCrLfSplitAcrossReads() {
+        feed("first\r");
+        feed("\nsecond\n");
+
+        assertEquals(List.of("first", "second"), lines);
+    }
+
+    @Test
+    void testEmptyLinesAreSkipped() {
+        feed("\n\nfirst\n\n\r\n");
+
+        assertEquals(List.of("first"), lines);
+    }
+
+    @Test
+    void testIncompleteLineIsHeldUntilFinish() {
+        feed("partial");
+        assertTrue(lines.isEmpty(), "Unterminated line should not be emitted yet");
+
+        feed(" line");
+        finish();
+
+        assertEquals(List.of("partial line"), lines);
+    }
+
+    @Test
+    void testMultibyteSequenceSplitAcrossReads() {
+        byte[] bytes = "T\u00edtulo \u65e5\u672c\u8a9e \ud83c\udfb5\n".getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 0; i < bytes.length; i++) {
+            decoder.feed(bytes, i, 1, line -> lines.add(line.toString()));
+        }
+
+        assertEquals(List.of("T\u00edtulo \u65e5\u672c\u8a9e \ud83c\udfb5"), lines);
+    }
+
+    @Test
+    void testInputLargerThanBuffer() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("line ").append(i).append('\n');
+        }
+
+        feed(builder.toString());
+
+        assertEquals(5000, lines.size());
+        assertEquals("line 4999", lines.get(4999));
+    }
+
+    @Test
+    void testMaxLineLengthTruncates() {
+        decoder = new StreamingLineDecoder(StandardCharsets.UTF_8, 64, 8);
+
+        feed("0123456789abcdef\nshort\n");
+
+        assertEquals(List.of("01234567", "short"), lines);
+    }
+
+    @Test
+    void testLineViewHelpers() {
+        List<Boolean> results = new ArrayList<>();
+
+        byte[] bytes = "[download]  42.0% of 10MiB\n".getBytes(StandardCharsets.UTF_8);
+        decoder.feed(bytes, 0, bytes.length, line -> {
+            results.add(line.startsWith("[download]"));
+            results.add(line.endsWith("10MiB"));
+            results.add(line.contains("42.0%"));
+            results.add(line.contains("Destination:"));
+        });
+
+        assertEquals(List.of(true, true, true, false), results);
+    }
+}
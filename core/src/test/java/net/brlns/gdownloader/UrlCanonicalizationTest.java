@@ -0,0 +1,53 @@
+package net.brlns.gdownloader;
+
+import net.brlns.gdownloader.util.URLUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlCanonicalizationTest {
+
+    private static final String WATCH_URL = "https://www.youtube.com/watch?v=dQw4w9WgXcQ";
+
+    @Test
+    void testShortLink() {
+        assertEquals(WATCH_URL, URLUtils.canonicalizeUrl("https://youtu.be/dQw4w9WgXcQ?si=abc123"));
+    }
+
+    @Test
+    void testWatchUrlDropsExtraParameters() {
+        assertEquals(WATCH_URL, URLUtils.canonicalizeUrl("https://www.youtube.com/watch?v=dQw4w9WgXcQ&t=10&feature=share"));
+        assertEquals(WATCH_URL, URLUtils.canonicalizeUrl("https://youtube.com/watch?t=10&v=dQw4w9WgXcQ"));
+    }
+
+    @Test
+    void testMobileHost() {
+        assertEquals(WATCH_URL, URLUtils.canonicalizeUrl("https://m.youtube.com/watch?v=dQw4w9WgXcQ"));
+    }
+
+    @Test
+    void testShorts() {
+        assertEquals(WATCH_URL, URLUtils.canonicalizeUrl("https://www.youtube.com/shorts/dQw4w9WgXcQ"));
+    }
+
+    @Test
+    void testPlaylistParameterIsKept() {
+        assertEquals(WATCH_URL + "&list=PL123",
+            URLUtils.canonicalizeUrl("https://youtu.be/dQw4w9WgXcQ?list=PL123&index=2"));
+        assertEquals("https://www.youtube.com/playlist?list=PL123",
+            URLUtils.canonicalizeUrl("https://m.youtube.com/playlist?list=PL123&si=abc"));
+    }
+
+    @Test
+    void testSpotifyShareLink() {
+        assertEquals("https://open.spotify.com/track/0heJlRkloNhkrBU9ROnM9Y",
+            URLUtils.canonicalizeUrl("https://open.spotify.com/intl-pt/track/0heJlRkloNhkrBU9ROnM9Y/?si=bananas"));
+    }
+
+    @Test
+    void testUnknownHostsAreUnchanged() {
+        String url = "https://example.com/video?id=1&t=10";
+        assertEquals(url, URLUtils.canonicalizeUrl(url));
+        assertEquals("not a url", URLUtils.canonicalizeUrl("not a url"));
+    }
+}
@@ -0,0 +1,196 @@
+package net.brlns.gdownloader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import net.brlns.gdownloader.settings.filters.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlFilterDispatcherTest {
+
+    private static AbstractUrlFilter customFilter(String id, String regex) {
+        GenericFilter filter = new GenericFilter();
+        filter.setId(id);
+        filter.setFilterName(id);
+        filter.setUrlRegex(regex);
+
+        return filter;
+    }
+
+    private static Optional<AbstractUrlFilter> linearMatch(List<AbstractUrlFilter> filters, String url) {
+        for (AbstractUrlFilter filter : filters) {
+            if (filter.matches(url)) {
+                return Optional.of(filter);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private static Optional<Set<String>> hosts(String regex) {
+        return UrlFilterDispatcher.getIndexedHosts(regex);
+    }
+
+    @Test
+    void testHostsOfDefaultPatterns() {
+        assertEquals(Set.of("bilibili.com"), hosts(
+            "^(https?:\\/\\/)?(www\\.)?bilibili\\.com(\\/.*)?$").orElseThrow());
+        assertEquals(Set.of("reddit.com"), hosts(
+            "^(https?:\\/\\/)?(www\\.|old\\.|new\\.)?reddit\\.com(\\/.*)?$").orElseThrow());
+        assertEquals(Set.of("youtube.com", "youtu.be"), hosts(
+            "^(https?:\\/\\/)?(www\\.)?(youtube\\.com|youtu\\.be)(?!.*(\\/live|\\/playlist|list=|\\/(@|channel\\/|c\\/|user\\/))).*$").orElseThrow());
+        assertEquals(Set.of("spotify.com", "spotify.link"), hosts(
+            "^(https?:\\/\\/)?(([a-zA-Z0-9-]+)\\.)?spotify\\.(com|link)(\\/.*)?$").orElseThrow());
+        assertEquals(Set.of("x.com", "twitter.com"), hosts(
+            "^(https?:\\/\\/)?(www\\.)?(x|twitter)\\.com(\\/.*)?$").orElseThrow());
+
+        for (AbstractUrlFilter filter : AbstractUrlFilter.getDefaultUrlFilters()) {
+            if (!filter.getUrlRegex().isEmpty()) {
+                assertTrue(hosts(filter.getUrlRegex()).isPresent(), filter.getUrlRegex());
+            }
+        }
+    }
+
+    @Test
+    void testOtherLayouts() {
+        assertEquals(Set.of("example.com"), hosts("https?://example\\.com/.*").orElseThrow());
+        assertEquals(Set.of("example.com"), hosts("example\\.com").orElseThrow());
+        // An unescaped dot matches any char, so only what comes before it is a host
+        assertEquals(Set.of("example"), hosts("^(https?://)?example.com.*").orElseThrow());
+        // A quoted | is not an alternation
+        assertEquals(Set.of("example.com"), hosts("^(https?://)?example\\.com\\Q|\\E.*").orElseThrow());
+        assertEquals(Set.of("example.com"), hosts("^(https?://)?example\\.com/[|a-z]+").orElseThrow());
+    }
+
+    @Test
+    void testLazyAndPossessiveQuantifiersAfterTheHost() {
+        assertEquals(Set.of("example.com"), hosts("^(https?://)?(www\\.)?example\\.com.*?$").orElseThrow());
+        assertEquals(Set.of("example.com"), hosts("^(https?://)?(www\\.)?example\\.com(/.*)??$").orElseThrow());
+        assertEquals(Set.of("example.com"), hosts("^(https?://)?(www\\.)?example\\.com.*+").orElseThrow());
+        assertEquals(Set.of("example.com"), hosts("^(https?://)?(www\\.)?example\\.com(/.*)?+").orElseThrow());
+    }
+
+    @Test
+    void testQuantifiedHostsAreNotIndexed() {
+        assertTrue(hosts("^(https?://)?example\\.com?/.*").isEmpty());
+        assertTrue(hosts("^(https?://)?example\\.com{0,1}/.*").isEmpty());
+        assertTrue(hosts("^(https?://)?example\\.co(m){0,1}/.*").isEmpty());
+        assertTrue(hosts("^(https?://)?example\\.(com|org)??/.*").isEmpty());
+        assertTrue(hosts("^(https?://)?example\\.com*+/.*").isEmpty());
+        assertTrue(hosts("^(https?://)?(example\\.)+com/.*").isEmpty());
+    }
+
+    @Test
+    void testOptionalSubdomains() {
+        assertEquals(Set.of("example.com"), hosts("^(https?://)?(www\\.)?example\\.com").orElseThrow());
+        assertEquals(Set.of("example.com"), hosts("^(https?://)?([a-z0-9]+\\.)?example\\.com").orElseThrow());
+
+        // Could span several labels or none at all, so the host would not start where lookups expect it
+        assertTrue(hosts("^(https?://)?(.*\\.)?example\\.com").isEmpty());
+        assertTrue(hosts("^(https?://)?([a-z]*\\.)?example\\.com").isEmpty());
+        assertTrue(hosts("^(https?://)?(www\\.)*example\\.com").isEmpty());
+    }
+
+    @Test
+    void testUnsupportedPatternsAreNotIndexed() {
+        assertTrue(hosts("(?i)example\\.com.*").isEmpty());
+        assertTrue(hosts("\\Qexample.com\\E.*").isEmpty());
+        assertTrue(hosts(".*\\d+.*").isEmpty());
+        assertTrue(hosts("^(https?://)?(www\\.|)example\\.com").isEmpty());
+    }
+
+    @Test
+    void testTopLevelAlternationIsNotIndexed() {
+        assertTrue(hosts("example\\.com|example\\.org").isEmpty());
+        assertTrue(hosts("^(https?://)?example\\.com/.*|.*\\.mp4$").isEmpty());
+        assertTrue(hosts("^(https?://)?example\\.com(/.*)?|^(https?://)?example\\.org").isEmpty());
+        assertTrue(hosts("^(https?://)?example\\.com[a]|b").isEmpty());
+    }
+
+    @Test
+    void testFirstMatchingFilterWins() {
+        List<AbstractUrlFilter> filters = new ArrayList<>();
+        filters.add(customFilter("unindexed", "(?i)https?://EXAMPLE\\.com/first.*"));
+        filters.add(customFilter("indexed", "https?://example\\.com/.*"));
+
+        UrlFilterDispatcher dispatcher = new UrlFilterDispatcher(filters);
+
+        assertEquals(1, dispatcher.getIndexedCount());
+        assertEquals("unindexed", dispatcher.match("https://example.com/first").orElseThrow().getId());
+        assertEquals("indexed", dispatcher.match("https://example.com/second").orElseThrow().getId());
+        assertTrue(dispatcher.match("https://example.org/second").isEmpty());
+    }
+
+    @Test
+    void testGenericFallback() {
+        UrlFilterDispatcher dispatcher = new UrlFilterDispatcher(AbstractUrlFilter.getDefaultUrlFilters());
+
+        assertTrue(dispatcher.match("https://example.org/video.mp4").isEmpty());
+        assertEquals(GenericFilter.ID, dispatcher.getGenericFilter().orElseThrow().getId());
+    }
+
+    @Test
+    void testMatchesLinearScanOnMixedUrls() {
+        List<AbstractUrlFilter> filters = AbstractUrlFilter.getDefaultUrlFilters();
+        UrlFilterDispatcher dispatcher = new UrlFilterDispatcher(filters);
+
+        String[] hosts = {
+            "www.youtube.com", "youtube.com", "youtu.be", "m.youtube.com", "www.bilibili.com", "crunchyroll.com",
+            "www.dailymotion.com", "dropout.tv", "facebook.com", "imgur.com", "www.patreon.com", "old.reddit.com",
+            "open.spotify.com", "spotify.link", "www.twitch.tv", "vimeo.com", "x.com", "twitter.com",
+            "example.com", "cdn.example.org", "youtube.com.example.net", "news.ycombinator.com"
+        };
+
+        String[] paths = {
+            "/watch?v=dQw4w9WgXcQ", "/watch?v=dQw4w9WgXcQ&list=PL12345", "/playlist?list=PL12345", "/@channel",
+            "/live/abc", "/video/x8abc", "/r/videos/comments/abc", "/track/4uLU6hMCjMI75M1A2tKUQC", "/status/1",
+            "/a/b/c.png", "", "/"
+        };
+
+        Random random = new Random(42);
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            String scheme = random.nextInt(10) == 0 ? "" : random.nextBoolean() ? "https://" : "http://";
+            urls.add(scheme + hosts[random.nextInt(hosts.length)] + paths[random.nextInt(paths.length)]);
+        }
+
+        for (String url : urls) {
+            assertEquals(linearMatch(filters, url), dispatcher.match(url), url);
+        }
+    }
+
+    @Test
+    void testMatchesLinearScanOnTrickyPatterns() {
+        List<AbstractUrlFilter> filters = new ArrayList<>();
+        filters.add(customFilter("any-dot", "^(https?://)?example.com.*"));
+        filters.add(customFilter("optional-m", "^(https?://)?sample\\.com?/.*"));
+        filters.add(customFilter("repetition", "^(https?://)?sample\\.co(m){0,1}/x.*"));
+        filters.add(customFilter("lazy", "^(https?://)?(www\\.)?lazy\\.com.*?$"));
+        filters.add(customFilter("possessive", "^(https?://)?(www\\.)?possessive\\.com(/.*)?+"));
+        filters.add(customFilter("alternation", "^(https?://)?alt\\.com/.*|.*\\.mp4$"));
+        filters.add(customFilter("any-subdomain", "^(https?://)?([a-z0-9]+\\.)?sub\\.net(/.*)?"));
+        filters.add(customFilter("bare", "sample\\.org"));
+        filters.addAll(AbstractUrlFilter.getDefaultUrlFilters());
+
+        UrlFilterDispatcher dispatcher = new UrlFilterDispatcher(filters);
+
+        String[] urls = {
+            "https://example.com/a", "exampleXcom", "http://www.example.com/", "https://sample.co/x", "sample.com/x",
+            "https://sample.co/y", "lazy.com", "https://www.lazy.com/a", "https://possessive.com/a",
+            "possessive.com", "https://alt.com/a", "https://other.org/video.mp4", "https://a.b.sub.net/",
+            "https://cdn.sub.net/x", "sub.net", "sample.org", "https://sample.org", "https://youtube.com.example.net/",
+            "https://youtube.comx/watch", "https://www.youtube.com/watch?v=abc", "https://YouTube.com/watch?v=abc",
+            "https://open.spotify.com/track/1", "https://x.com/a/status/1", "", ".", "https://", "http://."
+        };
+
+        for (String url : urls) {
+            assertEquals(linearMatch(filters, url), dispatcher.match(url), url);
+        }
+
+        assertEquals(filters.size() - 3, dispatcher.getIndexedCount());
+    }
+}